@@ -0,0 +1,85 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Easing curve sampled once into a lookup table. Evaluation is a table read with
+ * linear interpolation between neighbour samples, it doesn't allocate and doesn't call
+ * the source curve. Instances are immutable and may be shared between animations and threads.
+ */
+public final class BakedEasing implements Easing {
+
+    public static final int DEFAULT_SAMPLES = 256;
+
+    private final float[] mValues;
+    private final int mLast;
+
+    private BakedEasing(float[] values) {
+        mValues = values;
+        mLast = values.length - 1;
+    }
+
+    /**
+     * @param values curve values at evenly spaced inputs from 0 to 1 inclusive, at least two.
+     *               Array is copied.
+     * @return curve of specified samples, e.g. a keyframe curve.
+     */
+    public static BakedEasing of(float... values) {
+        if (values.length < 2) {
+            throw new IllegalArgumentException("At least two samples required, got: " + values.length);
+        }
+
+        return new BakedEasing(values.clone());
+    }
+
+    /**
+     * @param source curve to sample.
+     * @return source sampled with {@link #DEFAULT_SAMPLES} intervals.
+     */
+    public static BakedEasing bake(Easing source) {
+        return bake(source, DEFAULT_SAMPLES);
+    }
+
+    /**
+     * @param source curve to sample.
+     * @param intervals count of intervals between samples, table holds intervals + 1 values.
+     * @return source sampled with specified intervals.
+     */
+    public static BakedEasing bake(Easing source, int intervals) {
+        if (intervals < 1) {
+            throw new IllegalArgumentException("At least one interval required, got: " + intervals);
+        }
+
+        if (source instanceof BakedEasing && ((BakedEasing) source).mLast == intervals) {
+            return (BakedEasing) source;
+        }
+
+        final float[] values = new float[intervals + 1];
+        for (int i = 0; i <= intervals; i++) {
+            values[i] = source.ease((float) i / intervals);
+        }
+        return new BakedEasing(values);
+    }
+
+    /**
+     * @return count of intervals between samples.
+     */
+    public int getIntervals() {
+        return mLast;
+    }
+
+    @Override
+    public float ease(float input) {
+        if (input <= 0) {
+            return mValues[0];
+        }
+        if (input >= 1) {
+            return mValues[mLast];
+        }
+
+        final float position = input * mLast;
+        final int index = (int) position;
+        final float from = mValues[index];
+        return from + (mValues[index + 1] - from) * (position - index);
+    }
+
+}
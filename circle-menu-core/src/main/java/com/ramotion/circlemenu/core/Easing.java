@@ -0,0 +1,16 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Maps linear animation progress to eased progress. Android-free counterpart of
+ * {@code android.animation.TimeInterpolator}.
+ */
+public interface Easing {
+
+    /**
+     * @param input linear progress, in range [0..1].
+     * @return eased progress, may overshoot [0..1].
+     */
+    float ease(float input);
+
+}
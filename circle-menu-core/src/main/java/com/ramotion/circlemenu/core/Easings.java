@@ -0,0 +1,49 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Stock easing curves, numerically equal to the matching android.view.animation interpolators.
+ */
+public final class Easings {
+
+    public static final float DEFAULT_OVERSHOOT_TENSION = 2.0f;
+
+    public static final Easing LINEAR = new Easing() {
+        @Override
+        public float ease(float input) {
+            return input;
+        }
+    };
+
+    public static final Easing ACCELERATE_DECELERATE = new Easing() {
+        @Override
+        public float ease(float input) {
+            return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+        }
+    };
+
+    public static final Easing OVERSHOOT = overshoot(DEFAULT_OVERSHOOT_TENSION);
+
+    /**
+     * Shared lookup-table versions of the stock curves, used by default menu animations.
+     */
+    public static final BakedEasing BAKED_ACCELERATE_DECELERATE = BakedEasing.bake(ACCELERATE_DECELERATE);
+    public static final BakedEasing BAKED_OVERSHOOT = BakedEasing.bake(OVERSHOOT);
+
+    private Easings() {}
+
+    /**
+     * @param tension amount of overshoot. When tension equals 0.0f, there is no overshoot.
+     * @return curve that flings forward, overshoots the last value and comes back.
+     */
+    public static Easing overshoot(final float tension) {
+        return new Easing() {
+            @Override
+            public float ease(float input) {
+                final float t = input - 1.0f;
+                return t * t * ((tension + 1) * t + tension) + 1.0f;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Ticks every active client once per frame, in a single batched pass. Next frame is requested
+ * from the {@link FrameSource} only while there are active clients, so idle scheduler costs nothing.
+ * Not thread-safe, must be used from one thread, e.g. the UI thread.
+ */
+public final class FrameScheduler {
+
+    /**
+     * Animated object, e.g. a menu.
+     */
+    public interface Client {
+        /**
+         * @param frameTimeNanos frame time in nanoseconds.
+         * @return true to receive next frame, false to be removed from the scheduler.
+         */
+        boolean doFrame(long frameTimeNanos);
+    }
+
+    /**
+     * Source of frames, e.g. display vsync.
+     */
+    public interface FrameSource {
+        /**
+         * Requests a single call of {@link FrameScheduler#doFrame(long)} on the next frame.
+         * @param scheduler scheduler to call.
+         */
+        void postFrame(FrameScheduler scheduler);
+    }
+
+    private final FrameSource mSource;
+
+    private Client[] mClients = new Client[8];
+    private int mCount;
+    private boolean mFramePosted;
+    private boolean mTicking;
+
+    public FrameScheduler(FrameSource source) {
+        mSource = source;
+    }
+
+    /**
+     * Adds client, if it isn't added yet. Client added during frame gets its first call on the next frame.
+     * @param client client to add.
+     */
+    public void add(Client client) {
+        if (contains(client)) {
+            return;
+        }
+
+        if (mCount == mClients.length) {
+            final Client[] clients = new Client[mCount * 2];
+            System.arraycopy(mClients, 0, clients, 0, mCount);
+            mClients = clients;
+        }
+
+        mClients[mCount++] = client;
+        postFrame();
+    }
+
+    /**
+     * @param client client to remove.
+     */
+    public void remove(Client client) {
+        for (int i = 0; i < mCount; i++) {
+            if (mClients[i] != client) {
+                continue;
+            }
+
+            if (mTicking) {
+                mClients[i] = null;
+            } else {
+                System.arraycopy(mClients, i + 1, mClients, i, mCount - i - 1);
+                mClients[--mCount] = null;
+            }
+            return;
+        }
+    }
+
+    public boolean contains(Client client) {
+        for (int i = 0; i < mCount; i++) {
+            if (mClients[i] == client) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return count of active clients.
+     */
+    public int getClientCount() {
+        int result = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mClients[i] != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    public boolean isIdle() {
+        return getClientCount() == 0;
+    }
+
+    /**
+     * Ticks all clients. Must be called by {@link FrameSource} only.
+     * @param frameTimeNanos frame time in nanoseconds.
+     */
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        mTicking = true;
+
+        final int count = mCount;
+        int alive = 0;
+        for (int i = 0; i < count; i++) {
+            final Client client = mClients[i];
+            if (client != null && client.doFrame(frameTimeNanos) && mClients[i] != null) {
+                mClients[alive++] = client;
+            }
+        }
+
+        // Clients added during this frame
+        for (int i = count; i < mCount; i++) {
+            if (mClients[i] != null) {
+                mClients[alive++] = mClients[i];
+            }
+        }
+
+        for (int i = alive; i < mCount; i++) {
+            mClients[i] = null;
+        }
+
+        mCount = alive;
+        mTicking = false;
+
+        if (mCount > 0) {
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        if (!mFramePosted && !mTicking) {
+            mFramePosted = true;
+            mSource.postFrame(this);
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Frame source driven by hand, for tests and benchmarks. Time doesn't pass on its own:
+ * each {@link #advance(long)} moves the clock and delivers the requested frame, if any.
+ * Frames therefore land at exact, repeatable times.
+ */
+public final class ManualFrameSource implements FrameScheduler.FrameSource {
+
+    public static final long NANOS_PER_MILLI = 1000000;
+
+    private FrameScheduler mPending;
+    private long mTimeNanos;
+    private int mFrameCount;
+
+    public ManualFrameSource() {
+        this(0);
+    }
+
+    /**
+     * @param startTimeNanos initial clock time in nanoseconds.
+     */
+    public ManualFrameSource(long startTimeNanos) {
+        mTimeNanos = startTimeNanos;
+    }
+
+    @Override
+    public void postFrame(FrameScheduler scheduler) {
+        mPending = scheduler;
+    }
+
+    /**
+     * @return true if scheduler requested a frame that wasn't delivered yet.
+     */
+    public boolean isFramePosted() {
+        return mPending != null;
+    }
+
+    /**
+     * @return current clock time in nanoseconds.
+     */
+    public long getTimeNanos() {
+        return mTimeNanos;
+    }
+
+    /**
+     * @return count of frames delivered so far.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Delivers requested frame at current clock time, without moving the clock.
+     * @return true if frame was delivered.
+     */
+    public boolean frame() {
+        final FrameScheduler scheduler = mPending;
+        if (scheduler == null) {
+            return false;
+        }
+
+        mPending = null;
+        mFrameCount++;
+        scheduler.doFrame(mTimeNanos);
+        return true;
+    }
+
+    /**
+     * Moves the clock and delivers requested frame, if any.
+     * @param deltaNanos time step in nanoseconds, must not be negative.
+     * @return true if frame was delivered.
+     */
+    public boolean advance(long deltaNanos) {
+        if (deltaNanos < 0) {
+            throw new IllegalArgumentException("Negative time step: " + deltaNanos);
+        }
+
+        mTimeNanos += deltaNanos;
+        return frame();
+    }
+
+    /**
+     * @param deltaMillis time step in milliseconds.
+     * @return true if frame was delivered.
+     * @see #advance(long)
+     */
+    public boolean advanceMillis(long deltaMillis) {
+        return advance(deltaMillis * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Delivers frames with fixed step until no more frames are requested.
+     * @param frameNanos time step between frames in nanoseconds.
+     * @param maxFrames limit of frames, protects from endless animations.
+     * @return count of delivered frames.
+     * @throws IllegalStateException if frames are still requested after maxFrames.
+     */
+    public int runUntilIdle(long frameNanos, int maxFrames) {
+        int frames = 0;
+        while (isFramePosted()) {
+            if (frames == maxFrames) {
+                throw new IllegalStateException("Still animating after " + maxFrames + " frames");
+            }
+            advance(frameNanos);
+            frames++;
+        }
+        return frames;
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Programmatic open, close and select button requests, coalesced to the minimal work.
+ * Queue holds at most one pending select and one pending open or close, in request order:
+ * <ul>
+ *     <li>open or close replaces pending open or close, e.g. open, close, open is a single open;</li>
+ *     <li>select replaces pending select and pending open or close, since it opens menu if needed
+ *     and always ends closed.</li>
+ * </ul>
+ * Replaced requests are completed at once as not performed. Owner takes requests one by one
+ * with {@link #poll()} when menu is idle, and reports result with {@link #finish(boolean)}.
+ * Not thread-safe, must be used from one thread, e.g. the UI thread.
+ */
+public final class MenuCommandQueue {
+
+    public static final int COMMAND_NONE = 0;
+    public static final int COMMAND_OPEN = 1;
+    public static final int COMMAND_CLOSE = 2;
+    public static final int COMMAND_SELECT = 3;
+
+    /**
+     * Receives request result.
+     */
+    public interface Callback {
+        /**
+         * @param command one of {@code COMMAND_OPEN}, {@code COMMAND_CLOSE} or {@code COMMAND_SELECT}.
+         * @param buttonIndex selected button index, -1 for open and close.
+         * @param performed true if menu reached requested state, false if request was replaced
+         *                  by a later one or couldn't be performed.
+         */
+        void onCommandComplete(int command, int buttonIndex, boolean performed);
+    }
+
+    private int mSelectButton = -1;
+    private Callback mSelectCallback;
+
+    private int mTarget = COMMAND_NONE;
+    private boolean mTargetAnimate;
+    private Callback mTargetCallback;
+
+    private int mCurrent = COMMAND_NONE;
+    private int mCurrentButton = -1;
+    private boolean mCurrentAnimate;
+    private Callback mCurrentCallback;
+
+    /**
+     * @param animate true to open with animation.
+     * @param callback result receiver, may be null.
+     */
+    public void open(boolean animate, Callback callback) {
+        postTarget(COMMAND_OPEN, animate, callback);
+    }
+
+    /**
+     * @param animate true to close with animation.
+     * @param callback result receiver, may be null.
+     */
+    public void close(boolean animate, Callback callback) {
+        postTarget(COMMAND_CLOSE, animate, callback);
+    }
+
+    /**
+     * @param buttonIndex button to select.
+     * @param callback result receiver, may be null.
+     */
+    public void select(int buttonIndex, Callback callback) {
+        replaceTarget();
+        replaceSelect();
+        mSelectButton = buttonIndex;
+        mSelectCallback = callback;
+    }
+
+    /**
+     * Takes the next request, unless the current one isn't finished yet.
+     * @return current request, {@code COMMAND_NONE} if queue is empty.
+     */
+    public int poll() {
+        if (mCurrent != COMMAND_NONE) {
+            return mCurrent;
+        }
+
+        if (mSelectButton >= 0) {
+            mCurrent = COMMAND_SELECT;
+            mCurrentButton = mSelectButton;
+            mCurrentAnimate = true;
+            mCurrentCallback = mSelectCallback;
+            mSelectButton = -1;
+            mSelectCallback = null;
+        } else if (mTarget != COMMAND_NONE) {
+            mCurrent = mTarget;
+            mCurrentButton = -1;
+            mCurrentAnimate = mTargetAnimate;
+            mCurrentCallback = mTargetCallback;
+            mTarget = COMMAND_NONE;
+            mTargetCallback = null;
+        }
+
+        return mCurrent;
+    }
+
+    public int getCurrent() {
+        return mCurrent;
+    }
+
+    /**
+     * @return button index of current select request, -1 otherwise.
+     */
+    public int getCurrentButton() {
+        return mCurrentButton;
+    }
+
+    public boolean isCurrentAnimated() {
+        return mCurrentAnimate;
+    }
+
+    /**
+     * Completes current request.
+     * @param performed true if menu reached requested state.
+     */
+    public void finish(boolean performed) {
+        final int command = mCurrent;
+        final int button = mCurrentButton;
+        final Callback callback = mCurrentCallback;
+
+        mCurrent = COMMAND_NONE;
+        mCurrentButton = -1;
+        mCurrentCallback = null;
+
+        if (command != COMMAND_NONE && callback != null) {
+            callback.onCommandComplete(command, button, performed);
+        }
+    }
+
+    /**
+     * @return true if there is neither current nor pending request.
+     */
+    public boolean isEmpty() {
+        return mCurrent == COMMAND_NONE && mSelectButton < 0 && mTarget == COMMAND_NONE;
+    }
+
+    /**
+     * Completes current and pending requests as not performed.
+     */
+    public void clear() {
+        finish(false);
+        replaceSelect();
+        replaceTarget();
+    }
+
+    private void postTarget(int command, boolean animate, Callback callback) {
+        replaceTarget();
+        mTarget = command;
+        mTargetAnimate = animate;
+        mTargetCallback = callback;
+    }
+
+    private void replaceTarget() {
+        final int command = mTarget;
+        final Callback callback = mTargetCallback;
+
+        mTarget = COMMAND_NONE;
+        mTargetCallback = null;
+
+        if (command != COMMAND_NONE && callback != null) {
+            callback.onCommandComplete(command, -1, false);
+        }
+    }
+
+    private void replaceSelect() {
+        final int button = mSelectButton;
+        final Callback callback = mSelectCallback;
+
+        mSelectButton = -1;
+        mSelectCallback = null;
+
+        if (button >= 0 && callback != null) {
+            callback.onCommandComplete(COMMAND_SELECT, button, false);
+        }
+    }
+
+}
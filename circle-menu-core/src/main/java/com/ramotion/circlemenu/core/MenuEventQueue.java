@@ -0,0 +1,153 @@
+package com.ramotion.circlemenu.core;
+
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Single-producer, single-consumer queue of menu events, backed by a preallocated ring buffer.
+ * Producer publishes events without allocation or locking, events are delivered to the
+ * consumer in order, on the specified executor. When the buffer is full, new events are dropped.
+ * Neither a throwing consumer nor a rejecting executor stops the delivery of later events.
+ */
+public final class MenuEventQueue {
+
+    public static final int EVENT_MENU_OPEN_START = 0;
+    public static final int EVENT_MENU_OPEN_END = 1;
+    public static final int EVENT_MENU_CLOSE_START = 2;
+    public static final int EVENT_MENU_CLOSE_END = 3;
+    public static final int EVENT_BUTTON_CLICK_START = 4;
+    public static final int EVENT_BUTTON_CLICK_END = 5;
+    public static final int EVENT_BUTTON_LONG_CLICK = 6;
+    public static final int EVENT_BUTTON_LONG_CLICK_START = 7;
+    public static final int EVENT_BUTTON_LONG_CLICK_END = 8;
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Receives events on the executor thread.
+     */
+    public interface Consumer {
+        /**
+         * @param event one of {@code EVENT_*} constants.
+         * @param buttonIndex button zero-based index or -1 for menu events.
+         */
+        void onEvent(int event, int buttonIndex);
+    }
+
+    private static final class Record {
+        int event;
+        int buttonIndex;
+    }
+
+    private final Record[] mRecords;
+    private final int mMask;
+    private final Executor mExecutor;
+    private final Consumer mConsumer;
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private volatile long mHead;
+    private volatile long mTail;
+    private volatile int mDropped;
+    private volatile int mRejected;
+
+    /**
+     * @param capacity ring buffer size, rounded up to a power of two.
+     * @param executor executor to deliver events on.
+     * @param consumer events consumer.
+     */
+    public MenuEventQueue(int capacity, Executor executor, Consumer consumer) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        mRecords = new Record[size];
+        for (int i = 0; i < size; i++) {
+            mRecords[i] = new Record();
+        }
+
+        mMask = size - 1;
+        mExecutor = executor;
+        mConsumer = consumer;
+    }
+
+    /**
+     * Must be called from a single producer thread.
+     * @param event one of {@code EVENT_*} constants.
+     * @param buttonIndex button zero-based index or -1 for menu events.
+     * @return true if event was queued, false if it was dropped because buffer is full.
+     * Event queued while executor rejects the delivery is delivered with the next accepted one.
+     */
+    public boolean publish(int event, int buttonIndex) {
+        final long tail = mTail;
+        if (tail - mHead > mMask) {
+            mDropped++;
+            return false;
+        }
+
+        final Record record = mRecords[(int) (tail & mMask)];
+        record.event = event;
+        record.buttonIndex = buttonIndex;
+        mTail = tail + 1;
+
+        if (mScheduled.compareAndSet(false, true)) {
+            try {
+                mExecutor.execute(mDrain);
+            } catch (RejectedExecutionException e) {
+                mScheduled.set(false);
+                mRejected++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return count of events dropped because buffer was full.
+     */
+    public int getDroppedCount() {
+        return mDropped;
+    }
+
+    /**
+     * @return count of deliveries rejected by the executor, e.g. after its shutdown.
+     */
+    public int getRejectedCount() {
+        return mRejected;
+    }
+
+    public int getCapacity() {
+        return mRecords.length;
+    }
+
+    /**
+     * If consumer throws, the event is consumed, exception is passed to the executor
+     * and remaining events are delivered with the next publish.
+     */
+    private void drain() {
+        do {
+            try {
+                long head = mHead;
+                while (head < mTail) {
+                    final Record record = mRecords[(int) (head & mMask)];
+                    final int event = record.event;
+                    final int buttonIndex = record.buttonIndex;
+                    mHead = ++head;
+                    mConsumer.onEvent(event, buttonIndex);
+                }
+            } finally {
+                mScheduled.set(false);
+            }
+        } while (mHead < mTail && mScheduled.compareAndSet(false, true));
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Visual state of the menu: values of every animated property. Written by {@link MenuTimeline},
+ * read by the renderer. Fields are public for allocation-free, per-frame access.
+ */
+public final class MenuFrame {
+
+    public float menuRotation;
+    public float menuAlpha = 1f;
+    public float menuScale = 1f;
+    public boolean menuCloseIcon;
+
+    public boolean buttonsVisible;
+    public float buttonsOffset;
+    public float buttonsScale;
+    public float buttonsRotation;
+
+    public int clickedButton = -1;
+    public boolean clickedButtonRotating;
+    public float clickedButtonRotation;
+
+    public boolean ringVisible;
+    public float ringAngle;
+    public float ringScale = 1f;
+    public float ringAlpha = 1f;
+
+    /**
+     * Sets closed menu state.
+     */
+    public void setClosed() {
+        menuRotation = 0;
+        menuAlpha = 1f;
+        menuScale = 1f;
+        menuCloseIcon = false;
+        buttonsVisible = false;
+        buttonsOffset = 0;
+        buttonsScale = 0;
+        buttonsRotation = 0;
+        clickedButtonRotating = false;
+    }
+
+    /**
+     * Sets opened menu state.
+     * @param distance distance between menu center and buttons.
+     */
+    public void setOpened(float distance) {
+        menuRotation = 0;
+        menuAlpha = MenuTimeline.CLOSE_ICON_ALPHA;
+        menuScale = 1f;
+        menuCloseIcon = true;
+        buttonsVisible = true;
+        buttonsOffset = distance;
+        buttonsScale = 1f;
+        buttonsRotation = 0;
+        clickedButtonRotating = false;
+    }
+
+}
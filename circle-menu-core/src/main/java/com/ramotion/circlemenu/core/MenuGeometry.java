@@ -0,0 +1,146 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Angular layout of the menu buttons. Sine and cosine of every button angle are computed once,
+ * when buttons count changes, so per-frame positioning is a table read and a multiply.
+ */
+public final class MenuGeometry {
+
+    /**
+     * Angle of the first button, buttons are placed clockwise starting from the top.
+     */
+    public static final float FIRST_BUTTON_ANGLE = -90f;
+
+    private int mCount = -1;
+    private float mAngleStep;
+    private float[] mCos = new float[0];
+    private float[] mSin = new float[0];
+
+    public MenuGeometry(int count) {
+        setCount(count);
+    }
+
+    /**
+     * Rebuilds angle tables if count is changed.
+     * @param count buttons count.
+     * @return true if tables were rebuilt, false otherwise.
+     */
+    public boolean setCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Buttons count must not be negative");
+        }
+
+        if (count == mCount) {
+            return false;
+        }
+
+        mCount = count;
+        mAngleStep = count == 0 ? 0 : 360f / count;
+        mCos = new float[count];
+        mSin = new float[count];
+
+        for (int i = 0; i < count; i++) {
+            final double radians = Math.toRadians(getAngle(i));
+            mCos[i] = (float) Math.cos(radians);
+            mSin[i] = (float) Math.sin(radians);
+        }
+
+        return true;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return angle between neighbour buttons in degrees.
+     */
+    public float getAngleStep() {
+        return mAngleStep;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @return button angle in degrees, in range [-90..270).
+     */
+    public float getAngle(int index) {
+        return mAngleStep * index + FIRST_BUTTON_ANGLE;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @return button angle normalized to range [0..360), start angle of the ring effect.
+     */
+    public float getRingStartAngle(int index) {
+        return getRingStartAngle(index, 0);
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @param rotation menu rotation in degrees.
+     * @return angle of the rotated button normalized to range [0..360), start angle of the ring effect.
+     */
+    public float getRingStartAngle(int index, float rotation) {
+        final float angle = (getAngle(index) + rotation) % 360;
+        return angle < 0 ? angle + 360 : angle;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @param distance distance from the menu center.
+     * @return horizontal offset of the button from the menu center.
+     */
+    public float getX(int index, float distance) {
+        return mCos[index] * distance;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @param distance distance from the menu center.
+     * @return vertical offset of the button from the menu center.
+     */
+    public float getY(int index, float distance) {
+        return mSin[index] * distance;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @param distance distance from the menu center.
+     * @param cos cosine of the menu rotation.
+     * @param sin sine of the menu rotation.
+     * @return horizontal offset of the rotated button from the menu center.
+     */
+    public float getX(int index, float distance, float cos, float sin) {
+        return (mCos[index] * cos - mSin[index] * sin) * distance;
+    }
+
+    /**
+     * @param index button zero-based index.
+     * @param distance distance from the menu center.
+     * @param cos cosine of the menu rotation.
+     * @param sin sine of the menu rotation.
+     * @return vertical offset of the rotated button from the menu center.
+     */
+    public float getY(int index, float distance, float cos, float sin) {
+        return (mSin[index] * cos + mCos[index] * sin) * distance;
+    }
+
+    /**
+     * @param buttonSize menu button size in pixels.
+     * @param distance distance between menu center and buttons in pixels.
+     * @return radius of the ring effect in pixels.
+     */
+    public static int getRingRadius(float buttonSize, float distance) {
+        return (int) (buttonSize + (distance - buttonSize / 2));
+    }
+
+    /**
+     * @param ringRadius radius of the ring effect, see {@link #getRingRadius(float, float)}.
+     * @return menu size required to fit fully scaled ring effect.
+     */
+    public static int getDesiredSize(int ringRadius) {
+        return (int) (ringRadius * 2 * MenuTimeline.RING_SCALE_RATIO);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.ramotion.circlemenu.core;
+
+import java.util.List;
+
+
+/**
+ * Difference between old and new menu items, as operations on old buttons:
+ * <ul>
+ *     <li>reuse: new item takes the first not taken old button with the same icon and color,
+ *     so a kept item keeps its button wherever it moves;</li>
+ *     <li>reuse of a slot: new item without such button takes unmatched old button of its own slot,
+ *     the button gets new icon and color;</li>
+ *     <li>insert: other new items need new buttons;</li>
+ *     <li>remove: remaining unmatched old buttons are removed from their own slots.</li>
+ * </ul>
+ * Arrays are reused between computations. Not thread-safe.
+ */
+public final class MenuItemsDiff {
+
+    /**
+     * Source of a new item which needs a new button.
+     */
+    public static final int NEW = -1;
+
+    private int[] mSources = new int[0];
+    private boolean[] mKept = new boolean[0];
+    private int mOldCount;
+    private int mNewCount;
+
+    /**
+     * Items are pairs of icon and color of the same index, extra icons or colors are ignored.
+     */
+    public void compute(List<Integer> oldIcons, List<Integer> oldColors,
+                        List<Integer> newIcons, List<Integer> newColors) {
+        mOldCount = Math.min(oldIcons.size(), oldColors.size());
+        mNewCount = Math.min(newIcons.size(), newColors.size());
+        if (mSources.length < mNewCount) {
+            mSources = new int[mNewCount];
+        }
+        if (mKept.length < mOldCount) {
+            mKept = new boolean[mOldCount];
+        }
+
+        for (int i = 0; i < mOldCount; i++) {
+            mKept[i] = false;
+        }
+
+        for (int i = 0; i < mNewCount; i++) {
+            final int index = find(oldIcons, oldColors, newIcons.get(i), newColors.get(i));
+            mSources[i] = index;
+            if (index != NEW) {
+                mKept[index] = true;
+            }
+        }
+
+        for (int i = 0; i < mNewCount; i++) {
+            if (mSources[i] == NEW && i < mOldCount && !mKept[i]) {
+                mSources[i] = i;
+                mKept[i] = true;
+            }
+        }
+    }
+
+    public int getOldCount() {
+        return mOldCount;
+    }
+
+    public int getNewCount() {
+        return mNewCount;
+    }
+
+    /**
+     * @param newIndex index of new item.
+     * @return index of old button reused by the item, or {@link #NEW}.
+     */
+    public int getSource(int newIndex) {
+        return mSources[newIndex];
+    }
+
+    /**
+     * @param oldIndex index of old item.
+     * @return true if old button isn't reused and has to be removed.
+     */
+    public boolean isRemoved(int oldIndex) {
+        return !mKept[oldIndex];
+    }
+
+    /**
+     * @param index slot index.
+     * @return true if slot is added, removed or shows another button than before.
+     */
+    public boolean isSlotChanged(int index) {
+        return index >= mOldCount || index >= mNewCount || mSources[index] != index;
+    }
+
+    /**
+     * @return true if any slot is changed, see {@link #isSlotChanged(int)}.
+     */
+    public boolean isChanged() {
+        for (int i = 0, cnt = Math.max(mOldCount, mNewCount); i < cnt; i++) {
+            if (isSlotChanged(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int find(List<Integer> icons, List<Integer> colors, int icon, int color) {
+        for (int i = 0; i < mOldCount; i++) {
+            if (!mKept[i] && icons.get(i) == icon && colors.get(i) == color) {
+                return i;
+            }
+        }
+        return NEW;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Open/closed state of the menu and its transitions.
+ * <pre>
+ * CLOSED -&gt; OPENING -&gt; OPEN -&gt; CLOSING -&gt; CLOSED
+ *                         \-&gt; CLICKING -&gt; CLOSED
+ * </pre>
+ * A new transition can't start while another one is in progress.
+ */
+public final class MenuStateMachine {
+
+    public static final int STATE_CLOSED = 0;
+    public static final int STATE_OPENING = 1;
+    public static final int STATE_OPEN = 2;
+    public static final int STATE_CLOSING = 3;
+    public static final int STATE_CLICKING = 4;
+
+    private int mState = STATE_CLOSED;
+
+    public int getState() {
+        return mState;
+    }
+
+    public boolean isAnimating() {
+        return mState == STATE_OPENING || mState == STATE_CLOSING || mState == STATE_CLICKING;
+    }
+
+    /**
+     * @return true if menu is closed or is being opened.
+     */
+    public boolean isClosed() {
+        return mState == STATE_CLOSED || mState == STATE_OPENING;
+    }
+
+    /**
+     * @return true if transition to {@code STATE_OPENING} was made, false otherwise.
+     */
+    public boolean startOpen() {
+        return moveFrom(STATE_CLOSED, STATE_OPENING);
+    }
+
+    /**
+     * @return true if transition to {@code STATE_CLOSING} was made, false otherwise.
+     */
+    public boolean startClose() {
+        return moveFrom(STATE_OPEN, STATE_CLOSING);
+    }
+
+    /**
+     * @return true if transition to {@code STATE_CLICKING} was made, false otherwise.
+     */
+    public boolean startClick() {
+        return moveFrom(STATE_OPEN, STATE_CLICKING);
+    }
+
+    /**
+     * Completes current transition.
+     * @return resulting state.
+     */
+    public int finish() {
+        switch (mState) {
+            case STATE_OPENING:
+                mState = STATE_OPEN;
+                break;
+            case STATE_CLOSING:
+            case STATE_CLICKING:
+                mState = STATE_CLOSED;
+                break;
+            default:
+                break;
+        }
+        return mState;
+    }
+
+    /**
+     * Sets state immediately, without transition.
+     * @param open true for {@code STATE_OPEN}, false for {@code STATE_CLOSED}.
+     * @return true if state was set, false if transition is in progress.
+     */
+    public boolean set(boolean open) {
+        if (isAnimating()) {
+            return false;
+        }
+        mState = open ? STATE_OPEN : STATE_CLOSED;
+        return true;
+    }
+
+    private boolean moveFrom(int from, int to) {
+        if (mState != from) {
+            return false;
+        }
+        mState = to;
+        return true;
+    }
+
+}
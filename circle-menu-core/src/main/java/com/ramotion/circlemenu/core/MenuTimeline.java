@@ -0,0 +1,245 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Open, close and button click animations of the menu, expressed as functions of play time.
+ * Timeline writes animated values into a {@link MenuFrame}, it does not keep any references
+ * to the frame, so one timeline may serve several menus.
+ */
+public final class MenuTimeline {
+
+    public static final int TYPE_NONE = 0;
+    public static final int TYPE_OPEN = 1;
+    public static final int TYPE_CLOSE = 2;
+    public static final int TYPE_CLICK = 3;
+    public static final int TYPE_LONG_CLICK = 4;
+
+    public static final float RING_SCALE_RATIO = 1.3f;
+    public static final float CLOSE_ICON_ALPHA = 0.3f;
+    public static final float MENU_ROTATION_PEAK = 60f;
+
+    private int mDurationOpen;
+    private int mDurationClose;
+    private int mDurationRing;
+    private int mLongClickDurationRing;
+
+    private Easing mEasing = Easings.BAKED_ACCELERATE_DECELERATE;
+    private Easing mOpenEasing = Easings.BAKED_OVERSHOOT;
+    private Easing mCloseEasing = Easings.BAKED_OVERSHOOT;
+
+    private int mType = TYPE_NONE;
+    private int mButton = -1;
+    private long mUnit;
+    private long mDuration;
+    private float mDistance;
+    private float mStartMenuAlpha;
+
+    /**
+     * @param durationOpen open animation duration in milliseconds.
+     * @param durationClose duration of each of two close animation phases in milliseconds.
+     * @param durationRing ring effect duration in milliseconds.
+     * @param longClickDurationRing long click ring effect duration in milliseconds.
+     */
+    public MenuTimeline(int durationOpen, int durationClose, int durationRing, int longClickDurationRing) {
+        mDurationOpen = durationOpen;
+        mDurationClose = durationClose;
+        mDurationRing = durationRing;
+        mLongClickDurationRing = longClickDurationRing;
+    }
+
+    /**
+     * Starts new animation.
+     * @param type one of {@code TYPE_OPEN}, {@code TYPE_CLOSE}, {@code TYPE_CLICK} or {@code TYPE_LONG_CLICK}.
+     * @param button clicked button zero-based index, ignored for open and close animations.
+     * @param distance distance between menu center and buttons.
+     * @param frame current menu state.
+     * @return total animation duration in milliseconds.
+     */
+    public long start(int type, int button, float distance, MenuFrame frame) {
+        switch (type) {
+            case TYPE_OPEN:
+                mUnit = mDurationOpen;
+                mDuration = mUnit;
+                break;
+            case TYPE_CLOSE:
+                mUnit = mDurationClose;
+                mDuration = mUnit * 2;
+                break;
+            case TYPE_CLICK:
+                mUnit = mDurationRing;
+                mDuration = mUnit * 3;
+                break;
+            case TYPE_LONG_CLICK:
+                mUnit = mLongClickDurationRing;
+                mDuration = mUnit * 3;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown animation type: " + type);
+        }
+
+        mType = type;
+        mButton = button;
+        mDistance = distance;
+        mStartMenuAlpha = frame.menuAlpha;
+
+        return mDuration;
+    }
+
+    /**
+     * Writes animated values for specified play time.
+     * @param playTime time since animation start in milliseconds.
+     * @param frame menu state to update.
+     * @return true if animation is finished, false otherwise.
+     */
+    public boolean apply(long playTime, MenuFrame frame) {
+        final long time = Math.max(0, Math.min(playTime, mDuration));
+        switch (mType) {
+            case TYPE_OPEN:
+                applyOpen(time, frame);
+                break;
+            case TYPE_CLOSE:
+                applyClose(time, frame);
+                break;
+            case TYPE_CLICK:
+            case TYPE_LONG_CLICK:
+                applyClick(time, frame);
+                break;
+            default:
+                return true;
+        }
+        return playTime >= mDuration;
+    }
+
+    private void applyOpen(long time, MenuFrame frame) {
+        final float t = fraction(time);
+        final float f = mEasing.ease(t);
+        final float o = mOpenEasing.ease(t);
+
+        frame.menuAlpha = mStartMenuAlpha + (CLOSE_ICON_ALPHA - mStartMenuAlpha) * f;
+        frame.menuRotation = MENU_ROTATION_PEAK * 2 * (f < 0.5f ? f : 1f - f);
+        frame.menuCloseIcon = f >= 0.5f;
+
+        frame.buttonsVisible = true;
+        frame.buttonsOffset = mDistance * o;
+        frame.buttonsScale = o;
+    }
+
+    private void applyClose(long time, MenuFrame frame) {
+        frame.buttonsVisible = false;
+
+        if (time < mUnit) {
+            final float f = mEasing.ease(fraction(time));
+            frame.menuScale = 1f - f;
+            frame.menuAlpha = mStartMenuAlpha * (1f - f);
+        } else {
+            final float o = mCloseEasing.ease(fraction(time - mUnit));
+            frame.menuCloseIcon = false;
+            frame.menuRotation = MENU_ROTATION_PEAK * (1f - o);
+            frame.menuAlpha = o;
+            frame.menuScale = o;
+        }
+    }
+
+    private void applyClick(long time, MenuFrame frame) {
+        frame.clickedButton = mButton;
+        frame.ringVisible = time < mUnit * 2;
+
+        if (time < mUnit) {
+            final float f = mEasing.ease(fraction(time));
+            frame.clickedButtonRotating = true;
+            frame.clickedButtonRotation = 360f * f;
+            frame.ringAngle = 360f * f;
+            frame.ringScale = 1f;
+            frame.ringAlpha = 1f;
+        } else {
+            final float f = mEasing.ease(fraction(time - mUnit));
+            frame.clickedButtonRotating = false;
+            frame.clickedButtonRotation = 360f;
+            frame.ringAngle = 360f;
+            frame.ringScale = 1f + (RING_SCALE_RATIO - 1f) * f;
+            frame.ringAlpha = 1f - f;
+            applyClose(time - mUnit, frame);
+        }
+    }
+
+    private float fraction(long time) {
+        return mUnit == 0 ? 1f : Math.min(1f, (float) time / mUnit);
+    }
+
+    public int getType() {
+        return mType;
+    }
+
+    public int getButton() {
+        return mButton;
+    }
+
+    /**
+     * @return total duration of the last started animation in milliseconds.
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    public int getDurationOpen() {
+        return mDurationOpen;
+    }
+
+    public void setDurationOpen(int duration) {
+        mDurationOpen = duration;
+    }
+
+    public int getDurationClose() {
+        return mDurationClose;
+    }
+
+    public void setDurationClose(int duration) {
+        mDurationClose = duration;
+    }
+
+    public int getDurationRing() {
+        return mDurationRing;
+    }
+
+    public void setDurationRing(int duration) {
+        mDurationRing = duration;
+    }
+
+    public int getLongClickDurationRing() {
+        return mLongClickDurationRing;
+    }
+
+    public void setLongClickDurationRing(int duration) {
+        mLongClickDurationRing = duration;
+    }
+
+    /**
+     * @return curve of buttons moving out and growing on open.
+     */
+    public Easing getOpenEasing() {
+        return mOpenEasing;
+    }
+
+    /**
+     * @param easing curve of buttons moving out and growing on open, null to use default overshoot.
+     */
+    public void setOpenEasing(Easing easing) {
+        mOpenEasing = easing != null ? easing : Easings.BAKED_OVERSHOOT;
+    }
+
+    /**
+     * @return curve of menu button coming back in the second phase of close.
+     */
+    public Easing getCloseEasing() {
+        return mCloseEasing;
+    }
+
+    /**
+     * @param easing curve of menu button coming back in the second phase of close,
+     *               null to use default overshoot.
+     */
+    public void setCloseEasing(Easing easing) {
+        mCloseEasing = easing != null ? easing : Easings.BAKED_OVERSHOOT;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Polyline approximation of the ring effect arc. Each {@link #sweepTo(float, float[])} call
+ * emits only the points added since previous call, one point per {@link #STEP_DEGREE}.
+ * Steps are produced by rotating the last point with precomputed step sine and cosine,
+ * so a frame costs one trigonometric pair regardless of the swept angle.
+ */
+public final class RingSweep {
+
+    public static final int STEP_DEGREE = 5;
+
+    /**
+     * Max count of points emitted by a single {@link #sweepTo(float, float[])} call.
+     */
+    public static final int MAX_POINTS = 360 / STEP_DEGREE + 1;
+
+    private static final float STEP_COS = (float) Math.cos(Math.toRadians(STEP_DEGREE));
+    private static final float STEP_SIN = (float) Math.sin(Math.toRadians(STEP_DEGREE));
+
+    private float mStartAngle;
+    private float mAngle;
+    private float mRadius;
+
+    /**
+     * Starts new sweep.
+     * @param startAngle start angle in degrees.
+     * @param radius ring radius.
+     * @param out array to receive start point as x, y pair.
+     */
+    public void reset(float startAngle, float radius, float[] out) {
+        mStartAngle = startAngle;
+        mAngle = 0;
+        mRadius = radius;
+
+        final double radians = Math.toRadians(startAngle);
+        out[0] = (float) Math.cos(radians) * radius;
+        out[1] = (float) Math.sin(radians) * radius;
+    }
+
+    /**
+     * Continues sweep up to specified angle.
+     * @param angle swept angle in degrees, relative to the start angle.
+     * @param out array of at least {@code MAX_POINTS * 2} length to receive points as x, y pairs.
+     * @return count of emitted points.
+     */
+    public int sweepTo(float angle, float[] out) {
+        final float diff = angle - mAngle;
+        final int stepCount = Math.max(0, (int) (diff / STEP_DEGREE));
+        final float stepMod = diff % STEP_DEGREE;
+
+        final double radians = Math.toRadians(mStartAngle + mAngle);
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+
+        int count = 0;
+        for (int i = 1; i <= stepCount && count < MAX_POINTS - 1; i++) {
+            final float c = cos * STEP_COS - sin * STEP_SIN;
+            sin = sin * STEP_COS + cos * STEP_SIN;
+            cos = c;
+            out[count * 2] = cos * mRadius;
+            out[count * 2 + 1] = sin * mRadius;
+            count++;
+        }
+
+        final double last = Math.toRadians(mStartAngle + mAngle + STEP_DEGREE * stepCount + stepMod);
+        out[count * 2] = (float) Math.cos(last) * mRadius;
+        out[count * 2 + 1] = (float) Math.sin(last) * mRadius;
+        count++;
+
+        mAngle = angle;
+        return count;
+    }
+
+    public float getStartAngle() {
+        return mStartAngle;
+    }
+
+    public float getAngle() {
+        return mAngle;
+    }
+
+    public float getRadius() {
+        return mRadius;
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.ramotion.circlemenu.core;
+
+
+/**
+ * Rotation of the open menu by drag and fling. After release, rotation decays with friction
+ * and then snaps to the nearest slot with a damped spring. State is a few primitives and
+ * {@link #step(long)} never allocates, so it can run from a frame callback.
+ */
+public final class RotationPhysics {
+
+    public static final int MODE_IDLE = 0;
+    public static final int MODE_DRAG = 1;
+    public static final int MODE_FLING = 2;
+    public static final int MODE_SNAP = 3;
+
+    /**
+     * Velocity decay rate, 1/s.
+     */
+    public static final float DEFAULT_FRICTION = 4f;
+
+    /**
+     * Snap spring stiffness, 1/s^2.
+     */
+    public static final float DEFAULT_STIFFNESS = 150f;
+
+    public static final float DEFAULT_DAMPING_RATIO = 0.85f;
+
+    /**
+     * Fling slower than that, in degrees per second, turns into snap.
+     */
+    public static final float SNAP_VELOCITY = 90f;
+
+    /**
+     * Drag velocity older than that at release, in milliseconds, is dropped: finger was held still.
+     */
+    public static final long VELOCITY_TIMEOUT_MILLIS = 100;
+
+    private static final float MAX_FRAME_SECONDS = 0.05f;
+    private static final float SETTLE_ANGLE = 0.05f;
+    private static final float SETTLE_VELOCITY = 1f;
+    private static final float VELOCITY_SMOOTHING = 0.6f;
+
+    private final float mFriction;
+    private final float mStiffness;
+    private final float mDamping;
+
+    private int mMode = MODE_IDLE;
+    private float mAngle;
+    private float mVelocity;
+    private float mSlot;
+    private float mTarget;
+    private long mLastDragMillis;
+    private long mLastFrameNanos;
+    private boolean mHasFrame;
+
+    public RotationPhysics() {
+        this(DEFAULT_FRICTION, DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+    }
+
+    /**
+     * @param friction velocity decay rate, 1/s.
+     * @param stiffness snap spring stiffness, 1/s^2.
+     * @param dampingRatio snap spring damping ratio, 1 for critical damping.
+     */
+    public RotationPhysics(float friction, float stiffness, float dampingRatio) {
+        mFriction = friction;
+        mStiffness = stiffness;
+        mDamping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+    }
+
+    public int getMode() {
+        return mMode;
+    }
+
+    /**
+     * @return true if {@link #step(long)} must be called on the next frame.
+     */
+    public boolean isRunning() {
+        return mMode == MODE_FLING || mMode == MODE_SNAP;
+    }
+
+    /**
+     * @return current rotation in degrees, not normalized.
+     */
+    public float getAngle() {
+        return mAngle;
+    }
+
+    /**
+     * @return current angular velocity in degrees per second.
+     */
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    /**
+     * Stops any motion and sets rotation.
+     * @param angle rotation in degrees.
+     */
+    public void reset(float angle) {
+        mMode = MODE_IDLE;
+        mAngle = angle;
+        mVelocity = 0;
+    }
+
+    /**
+     * Stops fling or snap at current rotation, e.g. when user touches rotating menu.
+     */
+    public void stop() {
+        mMode = MODE_IDLE;
+        mVelocity = 0;
+    }
+
+    /**
+     * Rotates by drag.
+     * @param delta rotation delta in degrees.
+     * @param timeMillis event time in milliseconds.
+     */
+    public void drag(float delta, long timeMillis) {
+        if (mMode != MODE_DRAG) {
+            mMode = MODE_DRAG;
+            mVelocity = 0;
+        } else if (timeMillis > mLastDragMillis) {
+            final float velocity = delta * 1000f / (timeMillis - mLastDragMillis);
+            mVelocity = mVelocity + (velocity - mVelocity) * VELOCITY_SMOOTHING;
+        }
+
+        mLastDragMillis = timeMillis;
+        mAngle += delta;
+    }
+
+    /**
+     * Ends drag, starts fling with drag velocity or snap if drag was slow or paused before release.
+     * @param slot angle between snap positions in degrees, 0 to disable snap.
+     * @param timeMillis release event time in milliseconds, in the same time base as {@link #drag(float, long)}.
+     */
+    public void release(float slot, long timeMillis) {
+        mSlot = slot;
+        mHasFrame = false;
+
+        if (timeMillis - mLastDragMillis > VELOCITY_TIMEOUT_MILLIS) {
+            mVelocity = 0;
+        }
+
+        if (Math.abs(mVelocity) > SNAP_VELOCITY) {
+            mMode = MODE_FLING;
+        } else {
+            startSnap();
+        }
+    }
+
+    /**
+     * Forgets last frame time, e.g. when frames start coming from another clock.
+     * Next {@link #step(long)} only records its time.
+     */
+    public void resetClock() {
+        mHasFrame = false;
+    }
+
+    /**
+     * Advances simulation to the frame time.
+     * @param frameTimeNanos frame time in nanoseconds.
+     * @return true if simulation is still running, false if it's settled.
+     */
+    public boolean step(long frameTimeNanos) {
+        if (!isRunning()) {
+            return false;
+        }
+
+        if (!mHasFrame) {
+            mHasFrame = true;
+            mLastFrameNanos = frameTimeNanos;
+            return true;
+        }
+
+        final float dt = Math.min(MAX_FRAME_SECONDS, (frameTimeNanos - mLastFrameNanos) / 1e9f);
+        mLastFrameNanos = frameTimeNanos;
+
+        if (mMode == MODE_FLING) {
+            mVelocity *= (float) Math.exp(-mFriction * dt);
+            mAngle += mVelocity * dt;
+            if (Math.abs(mVelocity) < SNAP_VELOCITY) {
+                startSnap();
+            }
+        } else {
+            final float offset = mAngle - mTarget;
+            mVelocity += (-mStiffness * offset - mDamping * mVelocity) * dt;
+            mAngle += mVelocity * dt;
+            if (Math.abs(mAngle - mTarget) < SETTLE_ANGLE && Math.abs(mVelocity) < SETTLE_VELOCITY) {
+                mAngle = mTarget;
+                mVelocity = 0;
+                mMode = MODE_IDLE;
+            }
+        }
+
+        return isRunning();
+    }
+
+    private void startSnap() {
+        if (mSlot <= 0) {
+            mMode = MODE_IDLE;
+            mVelocity = 0;
+            return;
+        }
+
+        mTarget = Math.round(mAngle / mSlot) * mSlot;
+        mMode = MODE_SNAP;
+    }
+
+}
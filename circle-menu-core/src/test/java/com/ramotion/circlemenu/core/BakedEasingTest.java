@@ -0,0 +1,39 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BakedEasingTest {
+
+    private static final float DELTA = 1e-3f;
+
+    @Test
+    public void bakedCurves_matchSource() {
+        final Easing[] sources = {Easings.ACCELERATE_DECELERATE, Easings.OVERSHOOT};
+        for (Easing source : sources) {
+            final BakedEasing baked = BakedEasing.bake(source);
+            assertEquals(source.ease(0f), baked.ease(0f), 0f);
+            assertEquals(source.ease(1f), baked.ease(1f), 0f);
+
+            for (int i = 0; i <= 1000; i++) {
+                final float input = i / 1000f;
+                assertEquals(source.ease(input), baked.ease(input), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void keyframes_interpolatedLinearly() {
+        final BakedEasing triangle = BakedEasing.of(0f, 1f, 0f);
+
+        assertEquals(2, triangle.getIntervals());
+        assertEquals(0.5f, triangle.ease(0.25f), DELTA);
+        assertEquals(1f, triangle.ease(0.5f), DELTA);
+        assertEquals(0.5f, triangle.ease(0.75f), DELTA);
+        assertEquals(0f, triangle.ease(-1f), 0f);
+        assertEquals(0f, triangle.ease(2f), 0f);
+        assertSame(triangle, BakedEasing.bake(triangle, 2));
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameSchedulerTest {
+
+    private static final class CountingSource implements FrameScheduler.FrameSource {
+        int posted;
+
+        @Override
+        public void postFrame(FrameScheduler scheduler) {
+            posted++;
+        }
+    }
+
+    private static final class CountdownClient implements FrameScheduler.Client {
+        int frames;
+        int ticks;
+
+        CountdownClient(int frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public boolean doFrame(long frameTimeNanos) {
+            ticks++;
+            return --frames > 0;
+        }
+    }
+
+    @Test
+    public void clients_tickedInOneFrameUntilIdle() {
+        final CountingSource source = new CountingSource();
+        final FrameScheduler scheduler = new FrameScheduler(source);
+        final CountdownClient a = new CountdownClient(1);
+        final CountdownClient b = new CountdownClient(3);
+
+        scheduler.add(a);
+        scheduler.add(b);
+        scheduler.add(b);
+        assertEquals(1, source.posted);
+        assertEquals(2, scheduler.getClientCount());
+
+        long time = 0;
+        while (!scheduler.isIdle()) {
+            scheduler.doFrame(time += 16);
+        }
+
+        assertEquals(1, a.ticks);
+        assertEquals(3, b.ticks);
+        assertEquals(3, source.posted);
+    }
+
+    @Test
+    public void clientAddedDuringFrame_tickedOnNextFrame() {
+        final CountingSource source = new CountingSource();
+        final FrameScheduler scheduler = new FrameScheduler(source);
+        final CountdownClient late = new CountdownClient(1);
+
+        scheduler.add(new FrameScheduler.Client() {
+            @Override
+            public boolean doFrame(long frameTimeNanos) {
+                scheduler.add(late);
+                return false;
+            }
+        });
+
+        scheduler.doFrame(16);
+        assertEquals(0, late.ticks);
+        assertEquals(1, scheduler.getClientCount());
+
+        scheduler.doFrame(32);
+        assertEquals(1, late.ticks);
+        assertTrue(scheduler.isIdle());
+    }
+
+    @Test
+    public void manualSource_deliversFramesAtExactTimes() {
+        final ManualFrameSource source = new ManualFrameSource(1000);
+        final FrameScheduler scheduler = new FrameScheduler(source);
+        final long[] times = new long[3];
+        final FrameScheduler.Client client = new FrameScheduler.Client() {
+            int ticks;
+
+            @Override
+            public boolean doFrame(long frameTimeNanos) {
+                times[ticks++] = frameTimeNanos;
+                return ticks < times.length;
+            }
+        };
+
+        assertFalse(source.advance(16));
+        scheduler.add(client);
+        assertTrue(source.isFramePosted());
+
+        assertEquals(3, source.runUntilIdle(10, 100));
+        assertEquals(1026, times[0]);
+        assertEquals(1036, times[1]);
+        assertEquals(1046, times[2]);
+        assertEquals(1046, source.getTimeNanos());
+        assertFalse(source.isFramePosted());
+        assertTrue(scheduler.isIdle());
+    }
+
+}
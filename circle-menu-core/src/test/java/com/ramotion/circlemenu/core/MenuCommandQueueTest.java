@@ -0,0 +1,66 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MenuCommandQueueTest {
+
+    private static final class Recorder implements MenuCommandQueue.Callback {
+        final List<String> results = new ArrayList<>();
+
+        @Override
+        public void onCommandComplete(int command, int buttonIndex, boolean performed) {
+            results.add(command + ":" + buttonIndex + ":" + performed);
+        }
+    }
+
+    @Test
+    public void openCloseOpen_coalescedToSingleOpen() {
+        final MenuCommandQueue queue = new MenuCommandQueue();
+        final Recorder recorder = new Recorder();
+
+        queue.open(true, recorder);
+        queue.close(true, recorder);
+        queue.open(false, recorder);
+
+        assertEquals(2, recorder.results.size());
+        assertEquals(MenuCommandQueue.COMMAND_OPEN, queue.poll());
+        assertFalse(queue.isCurrentAnimated());
+        assertEquals(MenuCommandQueue.COMMAND_OPEN, queue.poll());
+
+        queue.finish(true);
+        assertEquals("1:-1:true", recorder.results.get(2));
+        assertEquals(MenuCommandQueue.COMMAND_NONE, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void select_replacesPendingTargetAndRunsBeforeLaterTarget() {
+        final MenuCommandQueue queue = new MenuCommandQueue();
+        final Recorder recorder = new Recorder();
+
+        queue.close(true, recorder);
+        queue.select(1, recorder);
+        queue.select(2, recorder);
+        queue.open(true, recorder);
+
+        assertEquals("2:-1:false", recorder.results.get(0));
+        assertEquals("3:1:false", recorder.results.get(1));
+
+        assertEquals(MenuCommandQueue.COMMAND_SELECT, queue.poll());
+        assertEquals(2, queue.getCurrentButton());
+        queue.finish(true);
+
+        assertEquals(MenuCommandQueue.COMMAND_OPEN, queue.poll());
+        queue.finish(true);
+
+        assertEquals("3:2:true", recorder.results.get(2));
+        assertEquals("1:-1:true", recorder.results.get(3));
+        assertTrue(queue.isEmpty());
+    }
+
+}
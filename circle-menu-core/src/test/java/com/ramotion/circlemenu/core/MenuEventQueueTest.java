@@ -0,0 +1,139 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class MenuEventQueueTest {
+
+    private static final class DeferredExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static final class RejectingExecutor implements Executor {
+        final DeferredExecutor target = new DeferredExecutor();
+        int rejections;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejections > 0) {
+                rejections--;
+                throw new RejectedExecutionException();
+            }
+            target.execute(command);
+        }
+    }
+
+    private static final class Recorder implements MenuEventQueue.Consumer {
+        final List<Integer> events = new ArrayList<>();
+
+        @Override
+        public void onEvent(int event, int buttonIndex) {
+            events.add(event * 100 + buttonIndex);
+        }
+    }
+
+    @Test
+    public void events_deliveredInOrderWithSingleSchedule() {
+        final DeferredExecutor executor = new DeferredExecutor();
+        final Recorder recorder = new Recorder();
+        final MenuEventQueue queue = new MenuEventQueue(8, executor, recorder);
+
+        queue.publish(MenuEventQueue.EVENT_BUTTON_CLICK_START, 2);
+        queue.publish(MenuEventQueue.EVENT_BUTTON_CLICK_END, 2);
+        assertEquals(1, executor.tasks.size());
+        assertTrue(recorder.events.isEmpty());
+
+        executor.runAll();
+        assertEquals(2, recorder.events.size());
+        assertEquals(402, (int) recorder.events.get(0));
+        assertEquals(502, (int) recorder.events.get(1));
+    }
+
+    @Test
+    public void fullBuffer_dropsNewEvents() {
+        final DeferredExecutor executor = new DeferredExecutor();
+        final Recorder recorder = new Recorder();
+        final MenuEventQueue queue = new MenuEventQueue(3, executor, recorder);
+        assertEquals(4, queue.getCapacity());
+
+        for (int i = 0; i < 6; i++) {
+            queue.publish(MenuEventQueue.EVENT_MENU_OPEN_START, i);
+        }
+
+        assertEquals(2, queue.getDroppedCount());
+        executor.runAll();
+        assertEquals(4, recorder.events.size());
+        assertEquals(3, (int) recorder.events.get(3));
+    }
+
+    @Test
+    public void throwingConsumer_doesNotStopDelivery() {
+        final DeferredExecutor executor = new DeferredExecutor();
+        final List<Integer> events = new ArrayList<>();
+        final MenuEventQueue queue = new MenuEventQueue(8, executor, new MenuEventQueue.Consumer() {
+            @Override
+            public void onEvent(int event, int buttonIndex) {
+                events.add(buttonIndex);
+                if (buttonIndex == 0) {
+                    throw new IllegalStateException("Consumer failure");
+                }
+            }
+        });
+
+        queue.publish(MenuEventQueue.EVENT_BUTTON_CLICK_START, 0);
+        queue.publish(MenuEventQueue.EVENT_BUTTON_CLICK_START, 1);
+        try {
+            executor.runAll();
+            fail("Consumer exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals(1, events.size());
+        }
+
+        queue.publish(MenuEventQueue.EVENT_BUTTON_CLICK_START, 2);
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(3, events.size());
+        assertEquals(1, (int) events.get(1));
+        assertEquals(2, (int) events.get(2));
+    }
+
+    @Test
+    public void rejectingExecutor_doesNotThrowAndRetriesOnNextPublish() {
+        final RejectingExecutor executor = new RejectingExecutor();
+        final Recorder recorder = new Recorder();
+        final MenuEventQueue queue = new MenuEventQueue(8, executor, recorder);
+
+        executor.rejections = 1;
+        assertTrue(queue.publish(MenuEventQueue.EVENT_MENU_OPEN_START, -1));
+        assertEquals(1, queue.getRejectedCount());
+        assertTrue(executor.target.tasks.isEmpty());
+
+        assertTrue(queue.publish(MenuEventQueue.EVENT_MENU_OPEN_END, -1));
+        assertEquals(1, executor.target.tasks.size());
+
+        executor.target.runAll();
+        assertEquals(2, recorder.events.size());
+        assertEquals(-1, (int) recorder.events.get(0));
+        assertEquals(99, (int) recorder.events.get(1));
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+}
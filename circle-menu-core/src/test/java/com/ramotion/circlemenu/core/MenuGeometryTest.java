@@ -0,0 +1,78 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MenuGeometryTest {
+
+    private static final float DELTA = 1e-3f;
+
+    @Test
+    public void buttonPositions_matchTrigonometry() {
+        final MenuGeometry geometry = new MenuGeometry(5);
+        final float distance = 120f;
+
+        for (int i = 0; i < 5; i++) {
+            final double radians = Math.toRadians(72f * i - 90);
+            assertEquals(Math.cos(radians) * distance, geometry.getX(i, distance), DELTA);
+            assertEquals(Math.sin(radians) * distance, geometry.getY(i, distance), DELTA);
+        }
+    }
+
+    @Test
+    public void setCount_rebuildsOnlyOnChange() {
+        final MenuGeometry geometry = new MenuGeometry(5);
+        assertFalse(geometry.setCount(5));
+        assertTrue(geometry.setCount(8));
+        assertEquals(45f, geometry.getAngleStep(), DELTA);
+    }
+
+    @Test
+    public void ringStartAngle_isNormalized() {
+        final MenuGeometry geometry = new MenuGeometry(4);
+        assertEquals(270f, geometry.getRingStartAngle(0), DELTA);
+        assertEquals(0f, geometry.getRingStartAngle(1), DELTA);
+        assertEquals(180f, geometry.getRingStartAngle(3), DELTA);
+    }
+
+    @Test
+    public void rotatedPositions_matchRotatedAngles() {
+        final MenuGeometry geometry = new MenuGeometry(6);
+        final float rotation = 25f;
+        final float cos = (float) Math.cos(Math.toRadians(rotation));
+        final float sin = (float) Math.sin(Math.toRadians(rotation));
+
+        for (int i = 0; i < 6; i++) {
+            final double radians = Math.toRadians(60f * i - 90 + rotation);
+            assertEquals(Math.cos(radians) * 100, geometry.getX(i, 100, cos, sin), DELTA);
+            assertEquals(Math.sin(radians) * 100, geometry.getY(i, 100, cos, sin), DELTA);
+        }
+
+        assertEquals(295f, geometry.getRingStartAngle(0, rotation), DELTA);
+        assertEquals(185f, geometry.getRingStartAngle(5, -25f), DELTA);
+        assertEquals(175f, geometry.getRingStartAngle(0, -95f), DELTA);
+    }
+
+    @Test
+    public void ringSweep_emitsPointsOnCircle() {
+        final RingSweep sweep = new RingSweep();
+        final float[] points = new float[RingSweep.MAX_POINTS * 2];
+        final float radius = 100f;
+
+        sweep.reset(30f, radius, points);
+        final int count = sweep.sweepTo(360f, points);
+        assertEquals(RingSweep.MAX_POINTS, count);
+
+        for (int i = 0; i < count - 1; i++) {
+            final double angle = Math.toRadians(30f + RingSweep.STEP_DEGREE * (i + 1));
+            assertEquals(Math.cos(angle) * radius, points[i * 2], DELTA);
+            assertEquals(Math.sin(angle) * radius, points[i * 2 + 1], DELTA);
+        }
+
+        final double last = Math.toRadians(30f + 360f);
+        assertEquals(Math.cos(last) * radius, points[(count - 1) * 2], DELTA);
+        assertEquals(Math.sin(last) * radius, points[(count - 1) * 2 + 1], DELTA);
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MenuItemsDiffTest {
+
+    private static final int ICON_A = 1;
+    private static final int ICON_B = 2;
+
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int CYAN = 0xFF00FFFF;
+
+    private static final List<Integer> OLD_ICONS = Arrays.asList(ICON_A, ICON_B, ICON_A);
+    private static final List<Integer> OLD_COLORS = Arrays.asList(RED, GREEN, BLUE);
+
+    @Test
+    public void sameItems_reuseAllButtonsInPlace() {
+        final MenuItemsDiff diff = compute(OLD_ICONS, OLD_COLORS);
+
+        assertSources(diff, 0, 1, 2);
+        assertRemoved(diff);
+        assertFalse(diff.isChanged());
+    }
+
+    @Test
+    public void middleInsert_keepsButtonsAndInsertsNew() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_B, ICON_B, ICON_A), Arrays.asList(RED, GREEN, CYAN, BLUE));
+
+        assertSources(diff, 0, 1, MenuItemsDiff.NEW, 2);
+        assertRemoved(diff);
+        assertFalse(diff.isSlotChanged(1));
+        assertTrue(diff.isSlotChanged(2));
+        assertTrue(diff.isSlotChanged(3));
+        assertTrue(diff.isChanged());
+    }
+
+    @Test
+    public void middleRemove_removesOwnButton() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_A), Arrays.asList(RED, BLUE));
+
+        assertSources(diff, 0, 2);
+        assertRemoved(diff, 1);
+        assertTrue(diff.isChanged());
+    }
+
+    @Test
+    public void reorder_movesButtons() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_B, ICON_A), Arrays.asList(BLUE, GREEN, RED));
+
+        assertSources(diff, 2, 1, 0);
+        assertRemoved(diff);
+        assertFalse(diff.isSlotChanged(1));
+        assertTrue(diff.isChanged());
+    }
+
+    @Test
+    public void changedItem_reusesButtonOfItsSlot() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_A, ICON_A), Arrays.asList(RED, CYAN, BLUE));
+
+        assertSources(diff, 0, 1, 2);
+        assertRemoved(diff);
+        assertFalse(diff.isChanged());
+    }
+
+    @Test
+    public void duplicateItems_takeButtonsInOrder() {
+        final MenuItemsDiff diff = new MenuItemsDiff();
+        diff.compute(Arrays.asList(ICON_A, ICON_A), Arrays.asList(RED, RED),
+                Arrays.asList(ICON_B, ICON_A, ICON_A, ICON_A), Arrays.asList(GREEN, RED, RED, RED));
+
+        assertSources(diff, MenuItemsDiff.NEW, 0, 1, MenuItemsDiff.NEW);
+        assertRemoved(diff);
+    }
+
+    @Test
+    public void extraIconsOrColors_areIgnored() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_B, ICON_A, ICON_B), Arrays.asList(RED, GREEN));
+
+        assertEquals(3, diff.getOldCount());
+        assertEquals(2, diff.getNewCount());
+        assertSources(diff, 0, 1);
+        assertRemoved(diff, 2);
+    }
+
+    @Test
+    public void arraysAreReused_betweenComputations() {
+        final MenuItemsDiff diff = compute(Arrays.asList(ICON_A, ICON_A), Arrays.asList(RED, BLUE));
+        diff.compute(Arrays.asList(ICON_A, ICON_A), Arrays.asList(RED, BLUE), OLD_ICONS, OLD_COLORS);
+
+        assertSources(diff, 0, MenuItemsDiff.NEW, 1);
+        assertRemoved(diff);
+    }
+
+    private static MenuItemsDiff compute(List<Integer> icons, List<Integer> colors) {
+        final MenuItemsDiff diff = new MenuItemsDiff();
+        diff.compute(OLD_ICONS, OLD_COLORS, icons, colors);
+        return diff;
+    }
+
+    private static void assertSources(MenuItemsDiff diff, int... sources) {
+        assertEquals(sources.length, diff.getNewCount());
+        for (int i = 0; i < sources.length; i++) {
+            assertEquals("Source of item " + i, sources[i], diff.getSource(i));
+        }
+    }
+
+    private static void assertRemoved(MenuItemsDiff diff, int... removed) {
+        for (int i = 0; i < diff.getOldCount(); i++) {
+            boolean expected = false;
+            for (int index : removed) {
+                expected |= index == i;
+            }
+            assertTrue("Removed button " + i + " must be " + expected, expected == diff.isRemoved(i));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MenuStateMachineTest {
+
+    @Test
+    public void openAndClose() {
+        final MenuStateMachine state = new MenuStateMachine();
+        assertEquals(MenuStateMachine.STATE_CLOSED, state.getState());
+        assertTrue(state.isClosed());
+        assertFalse(state.isAnimating());
+
+        assertTrue(state.startOpen());
+        assertEquals(MenuStateMachine.STATE_OPENING, state.getState());
+        assertTrue(state.isClosed());
+        assertTrue(state.isAnimating());
+
+        assertEquals(MenuStateMachine.STATE_OPEN, state.finish());
+        assertFalse(state.isClosed());
+        assertFalse(state.isAnimating());
+
+        assertTrue(state.startClose());
+        assertEquals(MenuStateMachine.STATE_CLOSING, state.getState());
+        assertFalse(state.isClosed());
+        assertTrue(state.isAnimating());
+
+        assertEquals(MenuStateMachine.STATE_CLOSED, state.finish());
+        assertTrue(state.isClosed());
+    }
+
+    @Test
+    public void click_closesMenu() {
+        final MenuStateMachine state = new MenuStateMachine();
+        assertTrue(state.set(true));
+
+        assertTrue(state.startClick());
+        assertEquals(MenuStateMachine.STATE_CLICKING, state.getState());
+        assertTrue(state.isAnimating());
+        assertEquals(MenuStateMachine.STATE_CLOSED, state.finish());
+    }
+
+    @Test
+    public void invalidTransitions_rejected() {
+        final MenuStateMachine state = new MenuStateMachine();
+        assertFalse(state.startClose());
+        assertFalse(state.startClick());
+        assertEquals(MenuStateMachine.STATE_CLOSED, state.finish());
+
+        assertTrue(state.startOpen());
+        assertFalse(state.startOpen());
+        assertFalse(state.startClose());
+        assertFalse(state.startClick());
+        assertFalse(state.set(false));
+        assertEquals(MenuStateMachine.STATE_OPENING, state.getState());
+
+        state.finish();
+        assertFalse(state.startOpen());
+        assertEquals(MenuStateMachine.STATE_OPEN, state.finish());
+    }
+
+    @Test
+    public void set_changesStateWithoutTransition() {
+        final MenuStateMachine state = new MenuStateMachine();
+        assertTrue(state.set(true));
+        assertEquals(MenuStateMachine.STATE_OPEN, state.getState());
+        assertTrue(state.set(false));
+        assertEquals(MenuStateMachine.STATE_CLOSED, state.getState());
+    }
+
+}
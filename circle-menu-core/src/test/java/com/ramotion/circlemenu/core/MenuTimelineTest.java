@@ -0,0 +1,130 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MenuTimelineTest {
+
+    private static final float DELTA = 1e-4f;
+
+    private static final int DURATION_OPEN = 300;
+    private static final int DURATION_CLOSE = 200;
+    private static final int DURATION_RING = 100;
+    private static final int DURATION_LONG_CLICK_RING = 400;
+    private static final float DISTANCE = 100f;
+
+    private static final Easing EASING = Easings.BAKED_ACCELERATE_DECELERATE;
+    private static final Easing OVERSHOOT = Easings.BAKED_OVERSHOOT;
+
+    private final MenuTimeline mTimeline = new MenuTimeline(DURATION_OPEN, DURATION_CLOSE, DURATION_RING, DURATION_LONG_CLICK_RING);
+    private final MenuFrame mFrame = new MenuFrame();
+
+    @Test
+    public void durations_openAndCloseNotSwapped() {
+        mFrame.setClosed();
+        assertEquals(DURATION_OPEN, mTimeline.start(MenuTimeline.TYPE_OPEN, -1, DISTANCE, mFrame));
+        assertFalse(mTimeline.apply(DURATION_OPEN - 1, mFrame));
+        assertTrue(mTimeline.apply(DURATION_OPEN, mFrame));
+
+        assertEquals(DURATION_CLOSE * 2, mTimeline.start(MenuTimeline.TYPE_CLOSE, -1, DISTANCE, mFrame));
+        assertFalse(mTimeline.apply(DURATION_CLOSE * 2 - 1, mFrame));
+        assertTrue(mTimeline.apply(DURATION_CLOSE * 2, mFrame));
+
+        assertEquals(DURATION_RING * 3, mTimeline.start(MenuTimeline.TYPE_CLICK, 0, DISTANCE, mFrame));
+        assertEquals(DURATION_LONG_CLICK_RING * 3, mTimeline.start(MenuTimeline.TYPE_LONG_CLICK, 0, DISTANCE, mFrame));
+    }
+
+    @Test
+    public void open_startMiddleEnd() {
+        mFrame.setClosed();
+        mTimeline.start(MenuTimeline.TYPE_OPEN, -1, DISTANCE, mFrame);
+
+        assertFalse(mTimeline.apply(0, mFrame));
+        assertTrue(mFrame.buttonsVisible);
+        assertEquals(0f, mFrame.buttonsOffset, DELTA);
+        assertEquals(0f, mFrame.buttonsScale, DELTA);
+        assertEquals(1f, mFrame.menuAlpha, DELTA);
+        assertEquals(0f, mFrame.menuRotation, DELTA);
+        assertFalse(mFrame.menuCloseIcon);
+
+        assertFalse(mTimeline.apply(DURATION_OPEN / 2, mFrame));
+        final float f = EASING.ease(0.5f);
+        final float o = OVERSHOOT.ease(0.5f);
+        assertEquals(DISTANCE * o, mFrame.buttonsOffset, DELTA);
+        assertEquals(o, mFrame.buttonsScale, DELTA);
+        assertEquals(1f + (MenuTimeline.CLOSE_ICON_ALPHA - 1f) * f, mFrame.menuAlpha, DELTA);
+        assertEquals(MenuTimeline.MENU_ROTATION_PEAK * 2 * Math.min(f, 1f - f), mFrame.menuRotation, DELTA);
+        assertEquals(f >= 0.5f, mFrame.menuCloseIcon);
+
+        assertTrue(mTimeline.apply(DURATION_OPEN, mFrame));
+        assertEquals(DISTANCE, mFrame.buttonsOffset, DELTA);
+        assertEquals(1f, mFrame.buttonsScale, DELTA);
+        assertEquals(MenuTimeline.CLOSE_ICON_ALPHA, mFrame.menuAlpha, DELTA);
+        assertEquals(0f, mFrame.menuRotation, DELTA);
+        assertTrue(mFrame.menuCloseIcon);
+    }
+
+    @Test
+    public void close_startMiddleEnd() {
+        mFrame.setOpened(DISTANCE);
+        mTimeline.start(MenuTimeline.TYPE_CLOSE, -1, DISTANCE, mFrame);
+
+        assertFalse(mTimeline.apply(0, mFrame));
+        assertFalse(mFrame.buttonsVisible);
+        assertEquals(1f, mFrame.menuScale, DELTA);
+        assertEquals(MenuTimeline.CLOSE_ICON_ALPHA, mFrame.menuAlpha, DELTA);
+
+        // Middle of the first phase: menu button shrinks and fades out
+        assertFalse(mTimeline.apply(DURATION_CLOSE / 2, mFrame));
+        final float f = EASING.ease(0.5f);
+        assertEquals(1f - f, mFrame.menuScale, DELTA);
+        assertEquals(MenuTimeline.CLOSE_ICON_ALPHA * (1f - f), mFrame.menuAlpha, DELTA);
+
+        // Middle of the animation: menu button comes back with menu icon
+        assertFalse(mTimeline.apply(DURATION_CLOSE, mFrame));
+        assertFalse(mFrame.menuCloseIcon);
+        assertEquals(0f, mFrame.menuScale, DELTA);
+        assertEquals(MenuTimeline.MENU_ROTATION_PEAK, mFrame.menuRotation, DELTA);
+
+        assertTrue(mTimeline.apply(DURATION_CLOSE * 2, mFrame));
+        assertFalse(mFrame.buttonsVisible);
+        assertEquals(1f, mFrame.menuScale, DELTA);
+        assertEquals(1f, mFrame.menuAlpha, DELTA);
+        assertEquals(0f, mFrame.menuRotation, DELTA);
+    }
+
+    @Test
+    public void click_startMiddleEnd() {
+        mFrame.setOpened(DISTANCE);
+        mTimeline.start(MenuTimeline.TYPE_CLICK, 2, DISTANCE, mFrame);
+
+        assertFalse(mTimeline.apply(0, mFrame));
+        assertEquals(2, mFrame.clickedButton);
+        assertTrue(mFrame.ringVisible);
+        assertTrue(mFrame.clickedButtonRotating);
+        assertEquals(0f, mFrame.clickedButtonRotation, DELTA);
+        assertEquals(0f, mFrame.ringAngle, DELTA);
+        assertEquals(1f, mFrame.ringScale, DELTA);
+        assertEquals(1f, mFrame.ringAlpha, DELTA);
+
+        // Middle: ring grows and fades out while menu button closes
+        assertFalse(mTimeline.apply(DURATION_RING * 3 / 2, mFrame));
+        final float f = EASING.ease(0.5f);
+        assertTrue(mFrame.ringVisible);
+        assertFalse(mFrame.clickedButtonRotating);
+        assertEquals(360f, mFrame.clickedButtonRotation, DELTA);
+        assertEquals(360f, mFrame.ringAngle, DELTA);
+        assertEquals(1f + (MenuTimeline.RING_SCALE_RATIO - 1f) * f, mFrame.ringScale, DELTA);
+        assertEquals(1f - f, mFrame.ringAlpha, DELTA);
+        assertFalse(mFrame.buttonsVisible);
+        assertEquals(1f - f, mFrame.menuScale, DELTA);
+
+        assertTrue(mTimeline.apply(DURATION_RING * 3, mFrame));
+        assertFalse(mFrame.ringVisible);
+        assertEquals(1f, mFrame.menuScale, DELTA);
+        assertEquals(1f, mFrame.menuAlpha, DELTA);
+        assertEquals(0f, mFrame.menuRotation, DELTA);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.ramotion.circlemenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RotationPhysicsTest {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final int MAX_FRAMES = 1000;
+
+    private static int settle(RotationPhysics physics) {
+        long time = 1;
+        int frames = 0;
+        while (physics.step(time) && frames < MAX_FRAMES) {
+            time += FRAME_NANOS;
+            frames++;
+        }
+        return frames;
+    }
+
+    @Test
+    public void slowRelease_snapsToNearestSlot() {
+        final RotationPhysics physics = new RotationPhysics();
+        physics.drag(0, 0);
+        physics.drag(40, 1000);
+        physics.release(30, 1000);
+
+        assertEquals(RotationPhysics.MODE_SNAP, physics.getMode());
+        assertTrue(settle(physics) < MAX_FRAMES);
+        assertEquals(30f, physics.getAngle(), 0.001f);
+    }
+
+    @Test
+    public void fling_decaysAndSnaps() {
+        final RotationPhysics physics = new RotationPhysics();
+        physics.drag(0, 0);
+        physics.drag(10, 10);
+        physics.drag(10, 20);
+        physics.release(45, 20);
+
+        assertEquals(RotationPhysics.MODE_FLING, physics.getMode());
+        assertTrue(settle(physics) < MAX_FRAMES);
+        assertEquals(RotationPhysics.MODE_IDLE, physics.getMode());
+        assertTrue(physics.getAngle() > 20f);
+        assertEquals(0f, physics.getAngle() % 45f, 0.001f);
+    }
+
+    @Test
+    public void dragPauseRelease_snapsWithoutFling() {
+        final RotationPhysics physics = new RotationPhysics();
+        physics.drag(0, 0);
+        physics.drag(10, 10);
+        physics.drag(10, 20);
+        physics.release(45, 20 + RotationPhysics.VELOCITY_TIMEOUT_MILLIS + 1);
+
+        assertEquals(RotationPhysics.MODE_SNAP, physics.getMode());
+        assertEquals(0f, physics.getVelocity(), 0f);
+        assertTrue(settle(physics) < MAX_FRAMES);
+        assertEquals(0f, physics.getAngle(), 0.001f);
+    }
+
+    @Test
+    public void stop_keepsAngle() {
+        final RotationPhysics physics = new RotationPhysics();
+        physics.drag(0, 0);
+        physics.drag(20, 10);
+        physics.release(90, 10);
+        physics.step(1);
+        physics.step(1 + FRAME_NANOS);
+
+        final float angle = physics.getAngle();
+        physics.stop();
+        assertFalse(physics.step(1 + FRAME_NANOS * 2));
+        assertEquals(angle, physics.getAngle(), 0f);
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.ramotion.circlemenu.example.simple;
+
+import android.os.Build;
+import android.os.Debug;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+
+/**
+ * Collects frame times from Choreographer into a fixed-size window, and allocations between samples.
+ * Allocations are read from ART runtime stats on API 23+, and from global alloc count on older APIs.
+ */
+class FrameStats implements Choreographer.FrameCallback {
+
+    private static final int WINDOW = 600;
+
+    static final long UNKNOWN = -1;
+
+    private final long[] mFrames = new long[WINDOW];
+    private final long[] mSorted = new long[WINDOW];
+
+    private int mCount;
+    private int mIndex;
+    private long mLastFrameNanos;
+    private boolean mRunning;
+
+    private long mLastAllocBytes;
+    private long mLastAllocCount;
+    private long mLastGcCount;
+    private long mAllocBytes;
+    private long mAllocCount;
+    private long mGcCount;
+
+    void start() {
+        if (mRunning) {
+            return;
+        }
+
+        mRunning = true;
+        mLastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void stop() {
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    void reset() {
+        mCount = 0;
+        mIndex = 0;
+        mLastFrameNanos = 0;
+
+        sampleAllocations();
+        mAllocBytes = 0;
+        mAllocCount = 0;
+        mGcCount = 0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+
+        if (mLastFrameNanos != 0) {
+            mFrames[mIndex] = frameTimeNanos - mLastFrameNanos;
+            mIndex = (mIndex + 1) % WINDOW;
+            mCount = Math.min(mCount + 1, WINDOW);
+        }
+
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    int getFrameCount() {
+        return mCount;
+    }
+
+    /**
+     * @param percentile percentile in range [0..100].
+     * @return frame time in milliseconds of the specified percentile over the last window.
+     */
+    float getFrameTimeMs(int percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        System.arraycopy(mFrames, 0, mSorted, 0, mCount);
+        Arrays.sort(mSorted, 0, mCount);
+
+        final int index = Math.min(mCount - 1, mCount * percentile / 100);
+        return mSorted[index] / 1e6f;
+    }
+
+    /**
+     * Reads allocation totals, getters return deltas since the previous sample.
+     */
+    @SuppressWarnings("deprecation")
+    void sampleAllocations() {
+        final long bytes;
+        final long count;
+        final long gcCount;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            bytes = getRuntimeStat("art.gc.bytes-allocated");
+            count = UNKNOWN;
+            gcCount = getRuntimeStat("art.gc.gc-count");
+        } else {
+            bytes = Debug.getGlobalAllocSize();
+            count = Debug.getGlobalAllocCount();
+            gcCount = UNKNOWN;
+        }
+
+        mAllocBytes = delta(bytes, mLastAllocBytes);
+        mAllocCount = delta(count, mLastAllocCount);
+        mGcCount = delta(gcCount, mLastGcCount);
+        mLastAllocBytes = bytes;
+        mLastAllocCount = count;
+        mLastGcCount = gcCount;
+    }
+
+    /**
+     * @return bytes allocated between the last two samples, or {@link #UNKNOWN}.
+     */
+    long getAllocBytes() {
+        return mAllocBytes;
+    }
+
+    /**
+     * @return objects allocated between the last two samples, or {@link #UNKNOWN} on API 23+.
+     */
+    long getAllocCount() {
+        return mAllocCount;
+    }
+
+    /**
+     * @return garbage collections between the last two samples, or {@link #UNKNOWN} before API 23.
+     */
+    long getGcCount() {
+        return mGcCount;
+    }
+
+    private static long delta(long value, long last) {
+        return value == UNKNOWN || last == UNKNOWN ? UNKNOWN : value - last;
+    }
+
+    private static long getRuntimeStat(String name) {
+        final String value = Debug.getRuntimeStat(name);
+        if (value == null) {
+            return UNKNOWN;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.ramotion.circlemenu.example.simple;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
+import android.view.View;
 
 import com.ramotion.circlemenu.CircleMenuView;
 
@@ -63,5 +65,12 @@ public class MainActivity extends AppCompatActivity {
                 Log.d("D", "onButtonLongClickAnimationEnd| index: " + index);
             }
         });
+
+        findViewById(R.id.stress_open).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startActivity(new Intent(MainActivity.this, StressActivity.class));
+            }
+        });
     }
 }
@@ -0,0 +1,302 @@
+package com.ramotion.circlemenu.example.simple;
+
+import android.content.res.TypedArray;
+import android.os.Bundle;
+import android.support.design.widget.FloatingActionButton;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CompoundButton;
+import android.widget.SeekBar;
+import android.widget.TextView;
+import android.widget.ToggleButton;
+
+import com.ramotion.circlemenu.CircleMenuView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Load test: a list of hundreds of menus, scripted open / close / click driver,
+ * and frame time percentiles with allocations on top.
+ */
+public class StressActivity extends AppCompatActivity {
+
+    private static final int ROWS_COUNT = 500;
+    private static final int MIN_BUTTONS = 4;
+    private static final int MAX_BUTTONS = 32;
+    private static final int DEFAULT_BUTTONS = 8;
+
+    private static final long DRIVER_STEP_MS = 120;
+    private static final long OVERLAY_STEP_MS = 500;
+    private static final int SCROLL_EVERY_STEPS = 10;
+    private static final int SCROLL_DY = 300;
+
+    private final List<Integer> mIcons = new ArrayList<>();
+    private final List<Integer> mColors = new ArrayList<>();
+    private final int[] mIconsSource = new int[5];
+    private final int[] mColorsSource = new int[5];
+
+    private final FrameStats mFrameStats = new FrameStats();
+    private final StringBuilder mOverlayText = new StringBuilder();
+    private final long[] mOverlayValues = new long[7];
+    private final long[] mOverlayShown = new long[7];
+    private final Random mRandom = new Random(42);
+
+    private RecyclerView mList;
+    private LinearLayoutManager mLayoutManager;
+    private TextView mOverlay;
+    private TextView mButtonsCountView;
+
+    private boolean mDriverEnabled;
+    private int mDriverStep;
+    private int mScrollDirection = 1;
+
+    private final Runnable mOverlayUpdate = new Runnable() {
+        @Override
+        public void run() {
+            updateOverlay();
+            mOverlay.postDelayed(this, OVERLAY_STEP_MS);
+        }
+    };
+
+    private final Runnable mDriver = new Runnable() {
+        @Override
+        public void run() {
+            if (!mDriverEnabled) {
+                return;
+            }
+
+            driveStep();
+            mList.postDelayed(this, DRIVER_STEP_MS);
+        }
+    };
+
+    private class MenuHolder extends RecyclerView.ViewHolder {
+        final CircleMenuView menu;
+
+        MenuHolder(CircleMenuView menu) {
+            super(menu);
+            this.menu = menu;
+        }
+    }
+
+    private final RecyclerView.Adapter<MenuHolder> mAdapter = new RecyclerView.Adapter<MenuHolder>() {
+        @Override
+        public MenuHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            final CircleMenuView menu = new CircleMenuView(parent.getContext(), mIcons, mColors);
+            menu.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            return new MenuHolder(menu);
+        }
+
+        @Override
+        public void onBindViewHolder(MenuHolder holder, int position) {
+            holder.menu.close(false);
+            holder.menu.setItems(mIcons, mColors);
+        }
+
+        @Override
+        public int getItemCount() {
+            return ROWS_COUNT;
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+
+        final TypedArray icons = getResources().obtainTypedArray(R.array.icons);
+        final TypedArray colors = getResources().obtainTypedArray(R.array.colors);
+        try {
+            for (int i = 0; i < mIconsSource.length; i++) {
+                mIconsSource[i] = icons.getResourceId(i, 0);
+                mColorsSource[i] = colors.getColor(i, 0);
+            }
+        } finally {
+            icons.recycle();
+            colors.recycle();
+        }
+
+        setButtonsCount(DEFAULT_BUTTONS);
+
+        mOverlay = findViewById(R.id.stress_overlay);
+        mButtonsCountView = findViewById(R.id.stress_buttons_count);
+        mButtonsCountView.setText(getString(R.string.stress_buttons_count, DEFAULT_BUTTONS));
+
+        mLayoutManager = new LinearLayoutManager(this);
+        mList = findViewById(R.id.stress_list);
+        mList.setLayoutManager(mLayoutManager);
+        mList.setAdapter(mAdapter);
+
+        final SeekBar seek = findViewById(R.id.stress_buttons_seek);
+        seek.setMax(MAX_BUTTONS - MIN_BUTTONS);
+        seek.setProgress(DEFAULT_BUTTONS - MIN_BUTTONS);
+        seek.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                final int count = MIN_BUTTONS + progress;
+                mButtonsCountView.setText(getString(R.string.stress_buttons_count, count));
+                setButtonsCount(count);
+                mAdapter.notifyDataSetChanged();
+                mFrameStats.reset();
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        });
+
+        final ToggleButton auto = findViewById(R.id.stress_auto);
+        auto.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                setDriverEnabled(isChecked);
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mFrameStats.reset();
+        mFrameStats.start();
+        Arrays.fill(mOverlayShown, Long.MIN_VALUE);
+        mOverlay.post(mOverlayUpdate);
+        if (mDriverEnabled) {
+            mList.post(mDriver);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mFrameStats.stop();
+        mOverlay.removeCallbacks(mOverlayUpdate);
+        mList.removeCallbacks(mDriver);
+    }
+
+    private void setButtonsCount(int count) {
+        mIcons.clear();
+        mColors.clear();
+        for (int i = 0; i < count; i++) {
+            mIcons.add(mIconsSource[i % mIconsSource.length]);
+            mColors.add(mColorsSource[i % mColorsSource.length]);
+        }
+    }
+
+    private void setDriverEnabled(boolean enabled) {
+        mDriverEnabled = enabled;
+        mList.removeCallbacks(mDriver);
+        if (enabled) {
+            mFrameStats.reset();
+            mList.post(mDriver);
+        }
+    }
+
+    /**
+     * Picks a random visible menu and opens, closes or clicks a button of it.
+     * Every few steps scrolls the list to exercise binding.
+     */
+    private void driveStep() {
+        if (++mDriverStep % SCROLL_EVERY_STEPS == 0) {
+            if (!mList.canScrollVertically(mScrollDirection)) {
+                mScrollDirection = -mScrollDirection;
+            }
+            mList.smoothScrollBy(0, SCROLL_DY * mScrollDirection);
+            return;
+        }
+
+        final int first = mLayoutManager.findFirstVisibleItemPosition();
+        final int last = mLayoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        final View row = mLayoutManager.findViewByPosition(first + mRandom.nextInt(last - first + 1));
+        if (!(row instanceof CircleMenuView)) {
+            return;
+        }
+
+        final CircleMenuView menu = (CircleMenuView) row;
+        switch (mRandom.nextInt(3)) {
+            case 0:
+                menu.open(true);
+                break;
+            case 1:
+                menu.close(true);
+                break;
+            default:
+                clickRandomButton(menu);
+                break;
+        }
+    }
+
+    private void clickRandomButton(CircleMenuView menu) {
+        final int count = menu.getChildCount();
+        final int start = mRandom.nextInt(count);
+        for (int i = 0; i < count; i++) {
+            final View child = menu.getChildAt((start + i) % count);
+            if (child instanceof FloatingActionButton && child.getId() == View.NO_ID && child.isShown()) {
+                child.performClick();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Allocations are shown per overlay step. Text is rebuilt only when any value changes,
+     * plain appends keep the overlay itself out of the allocation numbers.
+     */
+    private void updateOverlay() {
+        mFrameStats.sampleAllocations();
+
+        final long[] values = mOverlayValues;
+        values[0] = mFrameStats.getFrameCount();
+        values[1] = getFrameTimeTenths(50);
+        values[2] = getFrameTimeTenths(90);
+        values[3] = getFrameTimeTenths(99);
+        values[4] = mFrameStats.getAllocBytes();
+        values[5] = mFrameStats.getAllocCount();
+        values[6] = mFrameStats.getGcCount();
+        if (Arrays.equals(values, mOverlayShown)) {
+            return;
+        }
+
+        System.arraycopy(values, 0, mOverlayShown, 0, values.length);
+
+        mOverlayText.setLength(0);
+        mOverlayText.append("frames ").append(values[0]).append('\n');
+        appendFrameTime("p50 ", values[1]);
+        appendFrameTime("p90 ", values[2]);
+        appendFrameTime("p99 ", values[3]);
+        mOverlayText.append("alloc/").append(OVERLAY_STEP_MS).append(" ms");
+        if (values[4] != FrameStats.UNKNOWN) {
+            mOverlayText.append(' ').append(values[4] / 1024).append(" KB");
+        }
+        if (values[5] != FrameStats.UNKNOWN) {
+            mOverlayText.append(' ').append(values[5]).append(" objects");
+        }
+        if (values[6] != FrameStats.UNKNOWN) {
+            mOverlayText.append(", gc ").append(values[6]);
+        }
+        mOverlay.setText(mOverlayText);
+    }
+
+    private int getFrameTimeTenths(int percentile) {
+        return Math.round(mFrameStats.getFrameTimeMs(percentile) * 10);
+    }
+
+    private void appendFrameTime(String label, long tenths) {
+        mOverlayText.append(label).append(tenths / 10).append('.').append(tenths % 10).append(" ms\n");
+    }
+
+}
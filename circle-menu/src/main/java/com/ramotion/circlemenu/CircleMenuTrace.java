@@ -0,0 +1,131 @@
+package com.ramotion.circlemenu;
+
+
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.v4.os.TraceCompat;
+
+import java.lang.reflect.Method;
+
+
+/**
+ * Opt-in systrace / Perfetto instrumentation of CircleMenuView.
+ * Disabled by default, while disabled every call is a single static field read.
+ */
+public final class CircleMenuTrace {
+
+    static final String INIT_LAYOUT = "CircleMenu#initLayout";
+    static final String INIT_MENU = "CircleMenu#initMenu";
+    static final String INIT_BUTTONS = "CircleMenu#initButtons";
+    static final String MEASURE = "CircleMenu#onMeasure";
+    static final String LAYOUT = "CircleMenu#onLayout";
+    static final String START_ANIMATION = "CircleMenu#startAnimation";
+    static final String ANIMATION_FRAME = "CircleMenu#animationFrame";
+    static final String SCHEDULER_FRAME = "CircleMenu#schedulerFrame";
+    static final String RING_SWEEP = "RingEffect#setAngle";
+    static final String RING_DRAW = "RingEffect#onDraw";
+
+    static final String COUNTER_ACTIVE_ANIMATIONS = "CircleMenu:activeAnimations";
+    static final String COUNTER_RING_SEGMENTS = "CircleMenu:ringSegments";
+
+    private static final long TRACE_TAG_APP = 1L << 12;
+    private static final int API_SET_COUNTER = 29;
+
+    private static boolean sEnabled = false;
+    private static boolean sCounterResolved = false;
+    private static Method sTraceCounter;
+
+    private static int sActiveAnimations;
+
+    private CircleMenuTrace() {}
+
+    /**
+     * Enables or disables trace sections and counters. Requires API 18 or greater,
+     * ignored on older platforms.
+     * @param enabled true to emit trace sections and counters.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @return true if section was begun, must be passed to {@link #endSection(boolean)},
+     * so sections stay balanced when tracing is enabled or disabled in between.
+     */
+    static boolean beginSection(@NonNull String name) {
+        if (sEnabled) {
+            TraceCompat.beginSection(name);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param begun result of the paired {@link #beginSection(String)}.
+     */
+    static void endSection(boolean begun) {
+        if (begun) {
+            TraceCompat.endSection();
+        }
+    }
+
+    static void animationStarted() {
+        sActiveAnimations++;
+        if (sEnabled) {
+            setCounter(COUNTER_ACTIVE_ANIMATIONS, sActiveAnimations);
+        }
+    }
+
+    static void animationEnded() {
+        sActiveAnimations = Math.max(0, sActiveAnimations - 1);
+        if (sEnabled) {
+            setCounter(COUNTER_ACTIVE_ANIMATIONS, sActiveAnimations);
+        }
+    }
+
+    static void ringSegments(int count) {
+        if (sEnabled) {
+            setCounter(COUNTER_RING_SEGMENTS, count);
+        }
+    }
+
+    /**
+     * Trace.setCounter is public since API 29. It is looked up by name, the library compiles against
+     * an older SDK. Older platforms have hidden Trace.traceCounter only, it is never used on API 29+.
+     * Trace class itself is looked up by name too, it doesn't exist before API 18.
+     */
+    private static void setCounter(@NonNull String name, int value) {
+        if (!sCounterResolved) {
+            sCounterResolved = true;
+            try {
+                final Class<?> trace = Class.forName("android.os.Trace");
+                if (Build.VERSION.SDK_INT >= API_SET_COUNTER) {
+                    sTraceCounter = trace.getMethod("setCounter", String.class, long.class);
+                } else {
+                    sTraceCounter = trace.getMethod("traceCounter", long.class, String.class, int.class);
+                }
+            } catch (Exception e) {
+                sTraceCounter = null;
+            }
+        }
+
+        if (sTraceCounter == null) {
+            return;
+        }
+
+        try {
+            if (Build.VERSION.SDK_INT >= API_SET_COUNTER) {
+                sTraceCounter.invoke(null, name, (long) value);
+            } else {
+                sTraceCounter.invoke(null, TRACE_TAG_APP, name, value);
+            }
+        } catch (Exception e) {
+            sTraceCounter = null;
+        }
+    }
+
+}
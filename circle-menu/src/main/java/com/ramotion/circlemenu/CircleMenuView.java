@@ -1,33 +1,49 @@
 package com.ramotion.circlemenu;
 
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.Keyframe;
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
-import android.animation.ValueAnimator;
+import android.animation.TimeInterpolator;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.DrawableContainer;
+import android.graphics.drawable.LevelListDrawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.AttrRes;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.design.widget.FloatingActionButton;
 import android.support.v4.view.ViewCompat;
+import android.support.v7.content.res.AppCompatResources;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.OvershootInterpolator;
+import android.view.ViewConfiguration;
 import android.widget.FrameLayout;
 
+import com.ramotion.circlemenu.core.FrameScheduler;
+import com.ramotion.circlemenu.core.MenuCommandQueue;
+import com.ramotion.circlemenu.core.MenuEventQueue;
+import com.ramotion.circlemenu.core.MenuFrame;
+import com.ramotion.circlemenu.core.MenuGeometry;
+import com.ramotion.circlemenu.core.MenuItemsDiff;
+import com.ramotion.circlemenu.core.MenuStateMachine;
+import com.ramotion.circlemenu.core.MenuTimeline;
+import com.ramotion.circlemenu.core.RotationPhysics;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 
 /**
@@ -37,30 +53,131 @@ public class CircleMenuView extends FrameLayout {
 
     private static final int DEFAULT_BUTTON_SIZE = 56;
     private static final float DEFAULT_DISTANCE = DEFAULT_BUTTON_SIZE * 1.5f;
-    private static final float DEFAULT_RING_SCALE_RATIO = 1.3f;
-    private static final float DEFAULT_CLOSE_ICON_ALPHA = 0.3f;
+
+    private static final int LEVEL_ICON_MENU = 0;
+    private static final int LEVEL_ICON_CLOSE = 1;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
 
     private final List<View> mButtons = new ArrayList<>();
+    private final List<Integer> mIcons = new ArrayList<>();
+    private final List<Integer> mColors = new ArrayList<>();
+    private final List<View> mRemovedButtons = new ArrayList<>();
     private final Rect mButtonRect = new Rect();
 
+    private final MenuStateMachine mState = new MenuStateMachine();
+    private final MenuGeometry mGeometry = new MenuGeometry(0);
+    private final MenuFrame mFrame = new MenuFrame();
+    private final MenuFrame mCaptureFrame = new MenuFrame();
+    private final EventDispatcher mEvents = new EventDispatcher(this);
+    private final OnButtonClickListener mButtonClickListener = new OnButtonClickListener();
+    private final OnButtonLongClickListener mButtonLongClickListener = new OnButtonLongClickListener();
+    private final IconRasterizer mIconRasterizer = new IconRasterizer();
+    private final RotationPhysics mRotation = new RotationPhysics();
+    private final MenuCommandQueue mCommands = new MenuCommandQueue();
+    private final MenuItemsDiff mItemsDiff = new MenuItemsDiff();
+
+    private final ComponentCallbacks2 mMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                trimMemory();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {}
+    };
+
+    private final MessageQueue.IdleHandler mSpriteCapture = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mSpriteCaptureScheduled = captureNextSprite();
+            return mSpriteCaptureScheduled;
+        }
+    };
+
+    private final SpriteAtlas.LoadCallback mSpriteLoadCallback = new SpriteAtlas.LoadCallback() {
+        @Override
+        public void onAtlasLoaded(@NonNull SpriteAtlas atlas, boolean success) {
+            if (atlas == mSpriteAtlas && !success) {
+                scheduleSpriteCapture();
+            }
+        }
+    };
+
+    private final FrameScheduler.Client mFrameClient = new FrameScheduler.Client() {
+        @Override
+        public boolean doFrame(long frameTimeNanos) {
+            return onFrame(frameTimeNanos);
+        }
+    };
+
+    private final MenuTimeline mTimeline;
+    private long mTimelineStartNanos = NO_TIME;
+    private long mTimelinePlayTime;
+
+    private FrameScheduler mScheduler;
+
     private FloatingActionButton mMenuButton;
     private RingEffectView mRingView;
 
-    private boolean mClosedState = true;
-    private boolean mIsAnimating = false;
+    private FloatingActionButton mClickedButton;
+    private float mClickedPivotX;
+    private float mClickedPivotY;
+    private float mElevation;
+
+    private boolean mCloseIconShown = false;
+    private boolean mItemsAnimating = false;
+    private boolean mRasterizeIcons = false;
+    private boolean mLayoutDeferred = false;
+    private boolean mButtonsChanging = false;
+    private boolean mRotationEnabled = false;
+    private boolean mButtonsReleased = false;
+    private boolean mCommandClicked = false;
+    private boolean mSpritePlayback = false;
+    private boolean mSpriteCaptureScheduled = false;
+
+    private SpriteAtlas mSpriteAtlas;
+    private int mSpriteFrame = -1;
+    private MenuTimeline mCaptureTimeline;
+    private Drawable mCaptureMenuIcon;
+    private Drawable mCaptureCloseIcon;
+    private boolean mTimelineRunning = false;
+    private boolean mRotationRunning = false;
+    private boolean mRotationDragging = false;
+
+    private int mTouchSlop;
+    private float mTouchDownX;
+    private float mTouchDownY;
+    private float mTouchAngle;
+    private boolean mButtonsShown = true;
+    private float mButtonsOffset;
+    private float mButtonsScale;
+    private float mButtonsRotation;
+    private float mRotationCos = 1f;
+    private float mRotationSin = 0f;
+    private float mCenterX;
+    private float mCenterY;
 
     private int mIconMenu;
     private int mIconClose;
-    private int mDurationRing;
-    private int mLongClickDurationRing;
-    private int mDurationOpen;
-    private int mDurationClose;
     private int mDesiredSize;
     private int mRingRadius;
+    private int mLaidOutRingRadius = -1;
+    private int mLaidOutMenuButtonWidth = -1;
 
     private float mDistance;
+    private float mPendingDistance = Float.NaN;
+    private float mButtonSize;
 
-    private EventListener mListener;
+    private List<Integer> mPendingIcons;
+    private List<Integer> mPendingColors;
 
     /**
      * CircleMenu event listener.
@@ -131,54 +248,23 @@ public class CircleMenuView extends FrameLayout {
     private class OnButtonClickListener implements View.OnClickListener {
         @Override
         public void onClick(final View view) {
-            if (mIsAnimating) {
-                return;
+            if (mState.startClick()) {
+                startAnimation(MenuTimeline.TYPE_CLICK, mButtons.indexOf(view));
             }
-
-            final Animator click = getButtonClickAnimation((FloatingActionButton)view);
-            click.setDuration(mDurationRing);
-            click.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationStart(Animator animation) {
-                    if (mListener != null) {
-                        mListener.onButtonClickAnimationStart(CircleMenuView.this, mButtons.indexOf(view));
-                    }
-                }
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mClosedState = true;
-                    if (mListener != null) {
-                        mListener.onButtonClickAnimationEnd(CircleMenuView.this, mButtons.indexOf(view));
-                    }
-                }
-            });
-            click.start();
         }
     }
 
     private class OnButtonLongClickListener implements View.OnLongClickListener {
         @Override
         public boolean onLongClick(final View view) {
-            if (mListener == null) {
+            if (!mEvents.hasListeners() && !mEvents.hasConsumers()) {
                 return false;
             }
 
-            final boolean result =  mListener.onButtonLongClick(CircleMenuView.this, mButtons.indexOf(view));
-            if (result && !mIsAnimating) {
-                final Animator click = getButtonClickAnimation((FloatingActionButton)view);
-                click.setDuration(mLongClickDurationRing);
-                click.addListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationStart(Animator animation) {
-                        mListener.onButtonLongClickAnimationStart(CircleMenuView.this, mButtons.indexOf(view));
-                    }
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        mClosedState = true;
-                        mListener.onButtonLongClickAnimationEnd(CircleMenuView.this, mButtons.indexOf(view));
-                    }
-                });
-                click.start();
+            final int index = mButtons.indexOf(view);
+            final boolean result = mEvents.dispatchLongClick(index);
+            if (result && mState.startClick()) {
+                startAnimation(MenuTimeline.TYPE_LONG_CLICK, index);
             }
 
             return result;
@@ -197,6 +283,12 @@ public class CircleMenuView extends FrameLayout {
         }
 
         final int menuButtonColor;
+        final int durationRing;
+        final int longClickDurationRing;
+        final int durationOpen;
+        final int durationClose;
+        final int openInterpolator;
+        final int closeInterpolator;
         final List<Integer> icons;
         final List<Integer> colors;
 
@@ -224,20 +316,33 @@ public class CircleMenuView extends FrameLayout {
             mIconMenu = a.getResourceId(R.styleable.CircleMenuView_icon_menu, R.drawable.ic_menu_black_24dp);
             mIconClose = a.getResourceId(R.styleable.CircleMenuView_icon_close, R.drawable.ic_close_black_24dp);
 
-            mDurationRing = a.getInteger(R.styleable.CircleMenuView_duration_ring, getResources().getInteger(android.R.integer.config_mediumAnimTime));
-            mLongClickDurationRing = a.getInteger(R.styleable.CircleMenuView_long_click_duration_ring, getResources().getInteger(android.R.integer.config_longAnimTime));
-            mDurationOpen = a.getInteger(R.styleable.CircleMenuView_duration_open, getResources().getInteger(android.R.integer.config_mediumAnimTime));
-            mDurationClose = a.getInteger(R.styleable.CircleMenuView_duration_close, getResources().getInteger(android.R.integer.config_mediumAnimTime));
+            durationRing = a.getInteger(R.styleable.CircleMenuView_duration_ring, getResources().getInteger(android.R.integer.config_mediumAnimTime));
+            longClickDurationRing = a.getInteger(R.styleable.CircleMenuView_long_click_duration_ring, getResources().getInteger(android.R.integer.config_longAnimTime));
+            durationOpen = a.getInteger(R.styleable.CircleMenuView_duration_open, getResources().getInteger(android.R.integer.config_mediumAnimTime));
+            durationClose = a.getInteger(R.styleable.CircleMenuView_duration_close, getResources().getInteger(android.R.integer.config_mediumAnimTime));
 
             final float density = context.getResources().getDisplayMetrics().density;
             final float defaultDistance = DEFAULT_DISTANCE * density;
             mDistance = a.getDimension(R.styleable.CircleMenuView_distance, defaultDistance);
 
             menuButtonColor = a.getColor(R.styleable.CircleMenuView_icon_color, Color.WHITE);
+            mRasterizeIcons = a.getBoolean(R.styleable.CircleMenuView_rasterize_icons, false);
+            mRotationEnabled = a.getBoolean(R.styleable.CircleMenuView_rotation_enabled, false);
+            openInterpolator = a.getResourceId(R.styleable.CircleMenuView_open_interpolator, 0);
+            closeInterpolator = a.getResourceId(R.styleable.CircleMenuView_close_interpolator, 0);
+            mSpritePlayback = a.getBoolean(R.styleable.CircleMenuView_sprite_playback, false);
         } finally {
             a.recycle();
         }
 
+        mTimeline = new MenuTimeline(durationOpen, durationClose, durationRing, longClickDurationRing);
+        if (openInterpolator != 0) {
+            mTimeline.setOpenEasing(InterpolatorEasings.get(context, openInterpolator));
+        }
+        if (closeInterpolator != 0) {
+            mTimeline.setCloseEasing(InterpolatorEasings.get(context, closeInterpolator));
+        }
+
         initLayout(context);
         initMenu(menuButtonColor);
         initButtons(context, icons, colors);
@@ -258,10 +363,9 @@ public class CircleMenuView extends FrameLayout {
         mIconMenu = R.drawable.ic_menu_black_24dp;
         mIconClose = R.drawable.ic_close_black_24dp;
 
-        mDurationRing = getResources().getInteger(android.R.integer.config_mediumAnimTime);
-        mLongClickDurationRing = getResources().getInteger(android.R.integer.config_longAnimTime);
-        mDurationOpen = getResources().getInteger(android.R.integer.config_mediumAnimTime);
-        mDurationClose = getResources().getInteger(android.R.integer.config_mediumAnimTime);
+        final int durationMedium = getResources().getInteger(android.R.integer.config_mediumAnimTime);
+        final int durationLong = getResources().getInteger(android.R.integer.config_longAnimTime);
+        mTimeline = new MenuTimeline(durationMedium, durationMedium, durationMedium, durationLong);
 
         mDistance = defaultDistance;
 
@@ -272,316 +376,1167 @@ public class CircleMenuView extends FrameLayout {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.MEASURE);
+        try {
+            final int w = resolveSizeAndState(mDesiredSize, widthMeasureSpec, 0);
+            final int h = resolveSizeAndState(mDesiredSize, heightMeasureSpec, 0);
+
+            setMeasuredDimension(w, h);
+
+            // Menu size doesn't depend on children, so each child is measured once, against final size.
+            // Children with unchanged spec and no pending layout request return cached result.
+            final int exactWidthSpec = MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY);
+            final int exactHeightSpec = MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY);
+            for (int i = 0, cnt = getChildCount(); i < cnt; i++) {
+                final View child = getChildAt(i);
+                if (child == mRingView) {
+                    child.measure(exactWidthSpec, exactHeightSpec);
+                } else if (child.getVisibility() != GONE) {
+                    measureChildWithMargins(child, exactWidthSpec, 0, exactHeightSpec, 0);
+                }
+            }
+        } finally {
+            CircleMenuTrace.endSection(traced);
+        }
+    }
 
-        final int w = resolveSizeAndState(mDesiredSize, widthMeasureSpec, 0);
-        final int h = resolveSizeAndState(mDesiredSize, heightMeasureSpec, 0);
+    /**
+     * Layout requests caused by menu's own button and icon changes during animation are deferred
+     * until animation end, so no measure/layout pass runs in the middle of animation.
+     * Other requests, e.g. {@link #setLayoutParams}, are never deferred.
+     */
+    @Override
+    public void requestLayout() {
+        if (mButtonsChanging && mState.isAnimating()) {
+            mLayoutDeferred = true;
+            return;
+        }
 
-        setMeasuredDimension(w, h);
+        super.requestLayout();
     }
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        super.onLayout(changed, left, top, right, bottom);
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.LAYOUT);
+        try {
+            super.onLayout(changed, left, top, right, bottom);
+
+            final int menuButtonWidth = mMenuButton.getWidth();
+            if (!changed && mLaidOutRingRadius == mRingRadius && mLaidOutMenuButtonWidth == menuButtonWidth) {
+                return;
+            }
 
-        if (!changed && mIsAnimating) {
+            mLaidOutRingRadius = mRingRadius;
+            mLaidOutMenuButtonWidth = menuButtonWidth;
+
+            mMenuButton.getContentRect(mButtonRect);
+
+            mRingView.setStrokeWidth(mButtonRect.width());
+            mRingView.setRadius(mRingRadius);
+        } finally {
+            CircleMenuTrace.endSection(traced);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        invalidateSprites();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (mSpriteFrame >= 0) {
+            mSpriteAtlas.draw(canvas, mSpriteFrame, getWidth(), getHeight());
+        } else {
+            super.dispatchDraw(canvas);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(mMemoryCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(mMemoryCallbacks);
+        stopRotation();
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if (!canRotate()) {
+            return false;
+        }
+
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                startRotationTouch(ev);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                checkRotationSlop(ev);
+                return mRotationDragging;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (mRotationDragging) {
+                    releaseRotation(ev);
+                }
+                break;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent ev) {
+        if (!canRotate()) {
+            return super.onTouchEvent(ev);
+        }
+
+        final boolean dragging = mRotationDragging;
+        boolean inBand = false;
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                startRotationTouch(ev);
+                inBand = isInRotationBand(ev);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                checkRotationSlop(ev);
+                if (mRotationDragging) {
+                    final float angle = getTouchAngle(ev);
+                    float delta = angle - mTouchAngle;
+                    if (delta > 180) {
+                        delta -= 360;
+                    } else if (delta < -180) {
+                        delta += 360;
+                    }
+
+                    mTouchAngle = angle;
+                    mRotation.drag(delta, ev.getEventTime());
+                    mFrame.buttonsRotation = mRotation.getAngle();
+                    render();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (mRotationDragging) {
+                    releaseRotation(ev);
+                }
+                break;
+        }
+
+        // Touches down in the ring band and started drags are consumed, others reach views below the menu
+        return inBand || dragging || mRotationDragging || super.onTouchEvent(ev);
+    }
+
+    private boolean canRotate() {
+        return mRotationEnabled && mState.getState() == MenuStateMachine.STATE_OPEN;
+    }
+
+    private void startRotationTouch(@NonNull MotionEvent ev) {
+        mRotationDragging = false;
+        mTouchDownX = ev.getX();
+        mTouchDownY = ev.getY();
+        mTouchAngle = getTouchAngle(ev);
+    }
+
+    private void checkRotationSlop(@NonNull MotionEvent ev) {
+        if (mRotationDragging) {
             return;
         }
 
-        mMenuButton.getContentRect(mButtonRect);
+        final float dx = ev.getX() - mTouchDownX;
+        final float dy = ev.getY() - mTouchDownY;
+        if (dx * dx + dy * dy > mTouchSlop * mTouchSlop) {
+            // Fling is stopped by a new drag only, a tap on a button leaves it running
+            stopRotation();
+            mRotationDragging = true;
+            mTouchAngle = getTouchAngle(ev);
+            if (getParent() != null) {
+                getParent().requestDisallowInterceptTouchEvent(true);
+            }
+        }
+    }
 
-        mRingView.setStrokeWidth(mButtonRect.width());
-        mRingView.setRadius(mRingRadius);
+    /**
+     * @return true if touch is between the menu button and the outer edge of the buttons ring,
+     * where a drag rotates the menu.
+     */
+    private boolean isInRotationBand(@NonNull MotionEvent ev) {
+        final float dx = ev.getX() - getWidth() / 2f;
+        final float dy = ev.getY() - getHeight() / 2f;
+        final float distance = dx * dx + dy * dy;
+        final float inner = mMenuButton.getWidth() / 2f;
+        return distance > inner * inner && distance <= (float) mRingRadius * mRingRadius;
+    }
 
-        final LayoutParams lp = (LayoutParams) mRingView.getLayoutParams();
-        lp.width = right - left;
-        lp.height = bottom - top;
+    private void releaseRotation(@NonNull MotionEvent ev) {
+        mRotationDragging = false;
+        mRotation.release(mGeometry.getAngleStep(), ev.getEventTime());
+        scheduleRotationFrame();
+    }
+
+    private float getTouchAngle(@NonNull MotionEvent ev) {
+        return (float) Math.toDegrees(Math.atan2(ev.getY() - getHeight() / 2f, ev.getX() - getWidth() / 2f));
+    }
+
+    private void scheduleRotationFrame() {
+        mRotationRunning = true;
+        getFrameScheduler().add(mFrameClient);
+    }
+
+    private void stopRotation() {
+        mRotation.stop();
+        mRotationRunning = false;
     }
 
     private void initLayout(@NonNull Context context) {
-        LayoutInflater.from(context).inflate(R.layout.circle_menu, this, true);
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.INIT_LAYOUT);
+        try {
+            LayoutInflater.from(context).inflate(R.layout.circle_menu, this, true);
 
-        setWillNotDraw(true);
-        setClipChildren(false);
-        setClipToPadding(false);
+            setWillNotDraw(true);
+            setClipChildren(false);
+            setClipToPadding(false);
 
-        final float density = context.getResources().getDisplayMetrics().density;
-        final float buttonSize = DEFAULT_BUTTON_SIZE * density;
+            final float density = context.getResources().getDisplayMetrics().density;
+            mButtonSize = DEFAULT_BUTTON_SIZE * density;
+
+            mRingRadius = MenuGeometry.getRingRadius(mButtonSize, mDistance);
+            mDesiredSize = MenuGeometry.getDesiredSize(mRingRadius);
 
-        mRingRadius = (int) (buttonSize + (mDistance - buttonSize / 2));
-        mDesiredSize = (int) (mRingRadius * 2 * DEFAULT_RING_SCALE_RATIO);
+            mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+            SharedCaches.register(context);
 
-        mRingView = findViewById(R.id.ring_view);
+            mRingView = findViewById(R.id.ring_view);
+        } finally {
+            CircleMenuTrace.endSection(traced);
+        }
     }
 
     private void initMenu(int menuButtonColor) {
-        final AnimatorListenerAdapter animListener = new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                if (mListener != null) {
-                    if (mClosedState) {
-                        mListener.onMenuOpenAnimationStart(CircleMenuView.this);
-                    } else {
-                        mListener.onMenuCloseAnimationStart(CircleMenuView.this);
-                    }
-                }
-            }
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (mListener != null) {
-                    if (mClosedState) {
-                        mListener.onMenuOpenAnimationEnd(CircleMenuView.this);
-                    } else {
-                        mListener.onMenuCloseAnimationEnd(CircleMenuView.this);
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.INIT_MENU);
+        try {
+            mMenuButton = findViewById(R.id.circle_menu_main_button);
+            updateMenuIcon();
+            mMenuButton.setBackgroundTintList(ColorStateList.valueOf(menuButtonColor));
+            mMenuButton.setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    if (!startOpenAnimation()) {
+                        startCloseAnimation();
                     }
                 }
+            });
+        } finally {
+            CircleMenuTrace.endSection(traced);
+        }
+    }
 
-                mClosedState = !mClosedState;
-            }
-        };
-
-        mMenuButton = findViewById(R.id.circle_menu_main_button);
-        mMenuButton.setImageResource(mIconMenu);
-        mMenuButton.setBackgroundTintList(ColorStateList.valueOf(menuButtonColor));
-        mMenuButton.setOnClickListener(new OnClickListener() {
-            @Override
-            public void onClick(View view) {
-                if (mIsAnimating) {
-                    return;
-                }
+    private boolean startOpenAnimation() {
+        if (!mState.startOpen()) {
+            return false;
+        }
 
-                final Animator animation = mClosedState ? getOpenMenuAnimation() : getCloseMenuAnimation();
-                animation.setDuration(mClosedState ? mDurationClose : mDurationOpen);
-                animation.addListener(animListener);
-                animation.start();
-            }
-        });
+        restoreButtons();
+        mCenterX = mMenuButton.getX();
+        mCenterY = mMenuButton.getY();
+        mRotation.reset(0);
+        mFrame.buttonsRotation = 0;
+        startAnimation(MenuTimeline.TYPE_OPEN, -1);
+        return true;
+    }
+
+    private boolean startCloseAnimation() {
+        if (!mState.startClose()) {
+            return false;
+        }
+
+        startAnimation(MenuTimeline.TYPE_CLOSE, -1);
+        return true;
     }
 
     private void initButtons(@NonNull Context context, @NonNull List<Integer> icons, @NonNull List<Integer> colors) {
-        final int buttonsCount = Math.min(icons.size(), colors.size());
-        for (int i = 0; i < buttonsCount; i++) {
-            final FloatingActionButton button = new FloatingActionButton(context);
-            button.setImageResource(icons.get(i));
-            button.setBackgroundTintList(ColorStateList.valueOf(colors.get(i)));
-            button.setClickable(true);
-            button.setOnClickListener(new OnButtonClickListener());
-            button.setOnLongClickListener(new OnButtonLongClickListener());
-            button.setScaleX(0);
-            button.setScaleY(0);
-            button.setLayoutParams(new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT));
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.INIT_BUTTONS);
+        try {
+            final int buttonsCount = Math.min(icons.size(), colors.size());
+            for (int i = 0; i < buttonsCount; i++) {
+                addButton(context, icons.get(i), colors.get(i));
+            }
 
-            addView(button);
-            mButtons.add(button);
+            mGeometry.setCount(mButtons.size());
+        } finally {
+            CircleMenuTrace.endSection(traced);
         }
     }
 
-    private void offsetAndScaleButtons(float centerX, float centerY, float angleStep, float offset, float scale) {
-        for (int i = 0, cnt = mButtons.size(); i < cnt; i++) {
-            final float angle = angleStep * i - 90;
-            final float x = (float) Math.cos(Math.toRadians(angle)) * offset;
-            final float y = (float) Math.sin(Math.toRadians(angle)) * offset;
+    private FloatingActionButton addButton(@NonNull Context context, @DrawableRes int icon, int color) {
+        final FloatingActionButton button = createButton(context, icon, color);
+        mButtons.add(button);
+        mIcons.add(icon);
+        mColors.add(color);
+        return button;
+    }
 
-            final View button = mButtons.get(i);
-            button.setX(centerX + x);
-            button.setY(centerY + y);
-            button.setScaleX(1.0f * scale);
-            button.setScaleY(1.0f * scale);
+    private FloatingActionButton createButton(@NonNull Context context, @DrawableRes int icon, int color) {
+        final FloatingActionButton button = new FloatingActionButton(context);
+        button.setImageResource(icon);
+        button.setBackgroundTintList(ColorStateList.valueOf(color));
+        button.setClickable(true);
+        button.setOnClickListener(mButtonClickListener);
+        button.setOnLongClickListener(mButtonLongClickListener);
+        button.setScaleX(0);
+        button.setScaleY(0);
+        button.setLayoutParams(new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT));
+
+        addView(button);
+        return button;
+    }
+
+    /**
+     * Recreates buttons released by {@link #trimMemory()}. Called after menu left closed state,
+     * so layout request of new views is deferred, and new views are measured and laid out in place.
+     */
+    private void restoreButtons() {
+        if (!mButtonsReleased) {
+            return;
+        }
+
+        mButtonsReleased = false;
+
+        final boolean laidOut = ViewCompat.isLaidOut(this);
+        final int exactWidthSpec = MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY);
+        final int exactHeightSpec = MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY);
+
+        mButtonsChanging = true;
+        try {
+            for (int i = 0, cnt = mIcons.size(); i < cnt; i++) {
+                final FloatingActionButton button = createButton(getContext(), mIcons.get(i), mColors.get(i));
+                button.setVisibility(mButtonsShown ? View.VISIBLE : View.INVISIBLE);
+                mButtons.add(button);
+
+                if (laidOut) {
+                    measureChildWithMargins(button, exactWidthSpec, 0, exactHeightSpec, 0);
+                    button.layout(getPaddingLeft(), getPaddingTop(),
+                            getPaddingLeft() + button.getMeasuredWidth(), getPaddingTop() + button.getMeasuredHeight());
+                }
+            }
+        } finally {
+            mButtonsChanging = false;
         }
     }
 
-    private Animator getButtonClickAnimation(final @NonNull FloatingActionButton button) {
-        final int buttonNumber = mButtons.indexOf(button) + 1;
-        final float stepAngle = 360f / mButtons.size();
-        final float rOStartAngle = (270 - stepAngle + stepAngle * buttonNumber);
-        final float rStartAngle = rOStartAngle > 360 ? rOStartAngle % 360 : rOStartAngle;
+    /**
+     * Applies {@link MenuItemsDiff} of current and new items: kept items keep their buttons wherever
+     * they move, reused slots get new icon and color, new buttons start at the menu button, and removed
+     * buttons leave their own slots.
+     */
+    private void applyItems(@NonNull List<Integer> icons, @NonNull List<Integer> colors) {
+        finishItemsAnimation();
+
+        final int newCount = Math.min(icons.size(), colors.size());
+        final List<Integer> newIcons = icons.subList(0, newCount);
+        final List<Integer> newColors = colors.subList(0, newCount);
+        if (!newIcons.equals(mIcons) || !newColors.equals(mColors)) {
+            invalidateSprites();
+        }
 
-        final float x = (float) Math.cos(Math.toRadians(rStartAngle)) * mDistance;
-        final float y = (float) Math.sin(Math.toRadians(rStartAngle)) * mDistance;
+        if (mButtonsReleased) {
+            mIcons.clear();
+            mIcons.addAll(newIcons);
+            mColors.clear();
+            mColors.addAll(newColors);
+            mGeometry.setCount(newCount);
+            return;
+        }
 
-        final float pivotX = button.getPivotX();
-        final float pivotY = button.getPivotY();
-        button.setPivotX(pivotX - x);
-        button.setPivotY(pivotY - y);
+        final boolean open = mState.getState() == MenuStateMachine.STATE_OPEN;
+        final long duration = mTimeline.getDurationOpen();
+        final MenuItemsDiff diff = mItemsDiff;
+        diff.compute(mIcons, mColors, newIcons, newColors);
+
+        final View[] buttons = new View[newCount];
+        for (int i = 0; i < newCount; i++) {
+            final int icon = newIcons.get(i);
+            final int color = newColors.get(i);
+            final int source = diff.getSource(i);
+
+            if (source == MenuItemsDiff.NEW) {
+                final FloatingActionButton button = createButton(getContext(), icon, color);
+                button.setVisibility(mButtonsShown ? View.VISIBLE : View.INVISIBLE);
+                button.setX(mCenterX);
+                button.setY(mCenterY);
+                buttons[i] = button;
+                continue;
+            }
 
-        final ObjectAnimator rotateButton = ObjectAnimator.ofFloat(button, "rotation", 0f, 360f);
-        rotateButton.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                button.setPivotX(pivotX);
-                button.setPivotY(pivotY);
+            final FloatingActionButton button = (FloatingActionButton) mButtons.get(source);
+            if (mIcons.get(source) != icon) {
+                mIconRasterizer.discard(source);
+                button.setImageResource(icon);
+            }
+            if (mColors.get(source) != color) {
+                button.setBackgroundTintList(ColorStateList.valueOf(color));
             }
-        });
+            buttons[i] = button;
+        }
 
-        final float elevation = mMenuButton.getCompatElevation();
+        for (int i = 0, cnt = diff.getOldCount(); i < cnt; i++) {
+            if (!diff.isRemoved(i)) {
+                continue;
+            }
 
-        mRingView.setVisibility(View.INVISIBLE);
-        mRingView.setStartAngle(rStartAngle);
+            final View button = mButtons.get(i);
+            if (!open) {
+                removeView(button);
+                continue;
+            }
 
-        final ColorStateList csl = button.getBackgroundTintList();
-        if (csl != null) {
-            mRingView.setStrokeColor(csl.getDefaultColor());
+            mItemsAnimating = true;
+            mRemovedButtons.add(button);
+            button.animate()
+                    .x(mCenterX).y(mCenterY)
+                    .scaleX(0).scaleY(0)
+                    .setDuration(duration)
+                    .withEndAction(new Runnable() {
+                        @Override
+                        public void run() {
+                            mRemovedButtons.remove(button);
+                            removeView(button);
+                        }
+                    });
         }
 
-        final ObjectAnimator ring = ObjectAnimator.ofFloat(mRingView, "angle", 360);
-        final ObjectAnimator scaleX = ObjectAnimator.ofFloat(mRingView, "scaleX", 1f, DEFAULT_RING_SCALE_RATIO);
-        final ObjectAnimator scaleY = ObjectAnimator.ofFloat(mRingView, "scaleY", 1f, DEFAULT_RING_SCALE_RATIO);
-        final ObjectAnimator visible = ObjectAnimator.ofFloat(mRingView, "alpha", 1f, 0f);
+        for (int i = 0, cnt = Math.max(diff.getOldCount(), newCount); i < cnt; i++) {
+            if (diff.isSlotChanged(i)) {
+                mIconRasterizer.discard(i);
+            }
+        }
 
-        final AnimatorSet lastSet = new AnimatorSet();
-        lastSet.playTogether(scaleX, scaleY, visible, getCloseMenuAnimation());
+        mButtons.clear();
+        Collections.addAll(mButtons, buttons);
+        mIcons.clear();
+        mIcons.addAll(newIcons);
+        mColors.clear();
+        mColors.addAll(newColors);
 
-        final AnimatorSet firstSet = new AnimatorSet();
-        firstSet.playTogether(rotateButton, ring);
+        final boolean resized = mGeometry.setCount(newCount);
+        if (!open || !resized && !diff.isChanged()) {
+            return;
+        }
 
-        final AnimatorSet result = new AnimatorSet();
-        result.play(firstSet).before(lastSet);
-        result.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                mIsAnimating = true;
+        mItemsAnimating = true;
+        for (int i = 0; i < newCount; i++) {
+            mButtons.get(i).animate()
+                    .x(mCenterX + mGeometry.getX(i, mFrame.buttonsOffset, mRotationCos, mRotationSin))
+                    .y(mCenterY + mGeometry.getY(i, mFrame.buttonsOffset, mRotationCos, mRotationSin))
+                    .scaleX(mFrame.buttonsScale).scaleY(mFrame.buttonsScale)
+                    .setDuration(duration);
+        }
+    }
 
-                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
-                    bringChildToFront(mRingView);
-                    bringChildToFront(button);
-                } else {
-                    button.setCompatElevation(elevation + 1);
-                    ViewCompat.setZ(mRingView, elevation + 1);
+    private void finishItemsAnimation() {
+        if (!mItemsAnimating) {
+            return;
+        }
 
-                    for (View b : mButtons) {
-                        if (b != button) {
-                            ((FloatingActionButton) b).setCompatElevation(0);
-                        }
-                    }
-                }
+        mItemsAnimating = false;
 
-                mRingView.setScaleX(1f);
-                mRingView.setScaleY(1f);
-                mRingView.setVisibility(View.VISIBLE);
+        for (View button : mButtons) {
+            button.animate().cancel();
+        }
+
+        for (View button : mRemovedButtons) {
+            button.animate().cancel();
+            removeView(button);
+        }
+        mRemovedButtons.clear();
+
+        offsetAndScaleButtons(mCenterX, mCenterY, mFrame.buttonsOffset, mFrame.buttonsScale);
+    }
+
+    /**
+     * Menu and close icons are combined into one constant size level-list drawable.
+     * Switching level neither reloads the drawable nor requests layout.
+     */
+    private void updateMenuIcon() {
+        final LevelListDrawable icon = new LevelListDrawable();
+        icon.addLevel(LEVEL_ICON_MENU, LEVEL_ICON_MENU, AppCompatResources.getDrawable(getContext(), mIconMenu));
+        icon.addLevel(LEVEL_ICON_CLOSE, LEVEL_ICON_CLOSE, AppCompatResources.getDrawable(getContext(), mIconClose));
+        ((DrawableContainer.DrawableContainerState) icon.getConstantState()).setConstantSize(true);
+
+        mMenuButton.setImageDrawable(icon);
+        mMenuButton.setImageLevel(mCloseIconShown ? LEVEL_ICON_CLOSE : LEVEL_ICON_MENU);
+    }
+
+    private void startAnimation(int type, int buttonIndex) {
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.START_ANIMATION);
+        finishItemsAnimation();
+        stopRotation();
+        mTimeline.start(type, buttonIndex, mDistance, mFrame);
+        startSprites(type);
+        mTimelineStartNanos = NO_TIME;
+        mTimelinePlayTime = 0;
+        mTimelineRunning = true;
+        onTimelineStart();
+        getFrameScheduler().add(mFrameClient);
+        CircleMenuTrace.endSection(traced);
+    }
+
+    /**
+     * Invoked by {@link #getFrameScheduler()} on each frame while menu is animating.
+     * @return true if menu needs next frame.
+     */
+    private boolean onFrame(long frameTimeNanos) {
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.ANIMATION_FRAME);
+
+        if (mTimelineRunning) {
+            if (mTimelineStartNanos == NO_TIME) {
+                mTimelineStartNanos = frameTimeNanos - mTimelinePlayTime * 1000000;
             }
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mIsAnimating = false;
 
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    for (View b : mButtons) {
-                        ((FloatingActionButton) b).setCompatElevation(elevation);
-                    }
+            mTimelinePlayTime = (frameTimeNanos - mTimelineStartNanos) / 1000000;
+            final boolean finished = mTimeline.apply(mTimelinePlayTime, mFrame);
+            if (mSpriteFrame >= 0 && !finished) {
+                showSprite(mSpriteAtlas.getFrame(mTimeline.getType(), mTimelinePlayTime));
+            } else {
+                showSprite(-1);
+                renderAnimationFrame();
+            }
 
-                    ViewCompat.setZ(mRingView, elevation);
-                }
+            if (finished) {
+                mTimelineRunning = false;
+                onTimelineEnd();
             }
-        });
-
-        return result;
-    }
-
-    private Animator getOpenMenuAnimation() {
-        final ObjectAnimator alphaAnimation = ObjectAnimator.ofFloat(mMenuButton, "alpha", DEFAULT_CLOSE_ICON_ALPHA);
-
-        final Keyframe kf0 = Keyframe.ofFloat(0f, 0f);
-        final Keyframe kf1 = Keyframe.ofFloat(0.5f, 60f);
-        final Keyframe kf2 = Keyframe.ofFloat(1f, 0f);
-        final PropertyValuesHolder pvhRotation = PropertyValuesHolder.ofKeyframe("rotation", kf0, kf1, kf2);
-        final ObjectAnimator rotateAnimation = ObjectAnimator.ofPropertyValuesHolder(mMenuButton, pvhRotation);
-        rotateAnimation.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            private boolean iconChanged = false;
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                final float fraction = valueAnimator.getAnimatedFraction();
-                if (fraction >= 0.5f && !iconChanged) {
-                    iconChanged = true;
-                    mMenuButton.setImageResource(mIconClose);
-                }
+        } else if (mRotationRunning) {
+            mRotationRunning = mRotation.step(frameTimeNanos) && mState.getState() == MenuStateMachine.STATE_OPEN;
+            mFrame.buttonsRotation = mRotation.getAngle();
+            render();
+        }
+
+        CircleMenuTrace.endSection(traced);
+        return mTimelineRunning || mRotationRunning;
+    }
+
+    private void onTimelineStart() {
+        final int type = mTimeline.getType();
+        final int index = mTimeline.getButton();
+
+        CircleMenuTrace.animationStarted();
+
+        mButtonsChanging = true;
+        try {
+            if (type == MenuTimeline.TYPE_CLICK || type == MenuTimeline.TYPE_LONG_CLICK) {
+                prepareButtonClick((FloatingActionButton) mButtons.get(index), index);
+            } else if (type == MenuTimeline.TYPE_OPEN && mRasterizeIcons) {
+                mIconRasterizer.rasterize(getResources(), mButtons, mIcons);
             }
-        });
+        } finally {
+            mButtonsChanging = false;
+        }
 
-        final float centerX = mMenuButton.getX();
-        final float centerY = mMenuButton.getY();
+        switch (type) {
+            case MenuTimeline.TYPE_OPEN:
+                mEvents.dispatch(MenuEventQueue.EVENT_MENU_OPEN_START, index);
+                break;
+            case MenuTimeline.TYPE_CLOSE:
+                mEvents.dispatch(MenuEventQueue.EVENT_MENU_CLOSE_START, index);
+                break;
+            case MenuTimeline.TYPE_CLICK:
+                mEvents.dispatch(MenuEventQueue.EVENT_BUTTON_CLICK_START, index);
+                break;
+            case MenuTimeline.TYPE_LONG_CLICK:
+                mEvents.dispatch(MenuEventQueue.EVENT_BUTTON_LONG_CLICK_START, index);
+                break;
+        }
+    }
 
-        final int buttonsCount = mButtons.size();
-        final float angleStep = 360f / buttonsCount;
+    private void onTimelineEnd() {
+        final int type = mTimeline.getType();
+        final int index = mTimeline.getButton();
 
-        final ValueAnimator buttonsAppear = ValueAnimator.ofFloat(0f, mDistance);
-        buttonsAppear.setInterpolator(new OvershootInterpolator());
-        buttonsAppear.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                for (View view: mButtons) {
-                    view.setVisibility(View.VISIBLE);
-                }
+        mState.finish();
+        CircleMenuTrace.animationEnded();
+
+        if (mLayoutDeferred) {
+            mLayoutDeferred = false;
+            requestLayout();
+        }
+
+        if (type == MenuTimeline.TYPE_CLICK || type == MenuTimeline.TYPE_LONG_CLICK) {
+            finishButtonClick();
+        }
+
+        // Original icons go back to the buttons they were taken from, before queued items move them
+        mIconRasterizer.restore(mButtons);
+
+        if (!Float.isNaN(mPendingDistance)) {
+            final float distance = mPendingDistance;
+            mPendingDistance = Float.NaN;
+            applyDistance(distance);
+        }
+
+        if (mPendingIcons != null) {
+            final List<Integer> icons = mPendingIcons;
+            final List<Integer> colors = mPendingColors;
+            mPendingIcons = null;
+            mPendingColors = null;
+            applyItems(icons, colors);
+        }
+
+        switch (type) {
+            case MenuTimeline.TYPE_OPEN:
+                mEvents.dispatch(MenuEventQueue.EVENT_MENU_OPEN_END, index);
+                break;
+            case MenuTimeline.TYPE_CLOSE:
+                mEvents.dispatch(MenuEventQueue.EVENT_MENU_CLOSE_END, index);
+                break;
+            case MenuTimeline.TYPE_CLICK:
+                mEvents.dispatch(MenuEventQueue.EVENT_BUTTON_CLICK_END, index);
+                break;
+            case MenuTimeline.TYPE_LONG_CLICK:
+                mEvents.dispatch(MenuEventQueue.EVENT_BUTTON_LONG_CLICK_END, index);
+                break;
+        }
+
+        runCommands();
+        prepareSprites();
+    }
+
+    /**
+     * Open and close animations of complete atlas are played as frames of the atlas,
+     * views aren't touched until animation end. Rotated menu closes with live animation.
+     */
+    private void startSprites(int type) {
+        final boolean playable = mSpriteAtlas != null && mSpriteAtlas.isComplete()
+                && (type == MenuTimeline.TYPE_OPEN || type == MenuTimeline.TYPE_CLOSE)
+                && mFrame.buttonsRotation == 0;
+        showSprite(playable ? mSpriteAtlas.getFrame(type, 0) : -1);
+    }
+
+    private void showSprite(int index) {
+        if (mSpriteFrame != index) {
+            mSpriteFrame = index;
+            invalidate();
+        }
+    }
+
+    /**
+     * Finds atlas of current configuration in memory or on disk, or schedules its capture.
+     * Menus of the same configuration share one atlas, and capture its frames together.
+     */
+    private void prepareSprites() {
+        if (!mSpritePlayback || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+
+        if (mSpriteAtlas == null) {
+            mSpriteAtlas = SpriteAtlas.obtain(getContext(), getSpriteKey(), getWidth(), getHeight(),
+                    mTimeline.getDurationOpen(), mTimeline.getDurationClose(), mSpriteLoadCallback);
+        }
+
+        if (!mSpriteAtlas.isComplete() && !mSpriteAtlas.isLoading()) {
+            scheduleSpriteCapture();
+        }
+    }
+
+    /**
+     * Drops atlas of previous configuration, e.g. on size, items or durations change.
+     */
+    private void invalidateSprites() {
+        mSpriteAtlas = null;
+        resetSpriteCapture();
+        if (mSpriteFrame >= 0) {
+            showSprite(-1);
+            render();
+        }
+        prepareSprites();
+    }
+
+    private void scheduleSpriteCapture() {
+        if (!mSpriteCaptureScheduled) {
+            mSpriteCaptureScheduled = true;
+            Looper.myQueue().addIdleHandler(mSpriteCapture);
+        }
+    }
+
+    /**
+     * Captures one frame of the atlas while UI thread is idle. Views can't be drawn in background,
+     * so frames are captured one by one between display frames. Capture is paused while menu isn't
+     * closed and resumed at the end of animation. Timeline, frame and icons are reused by all frames
+     * of the atlas.
+     * @return true if more frames have to be captured.
+     */
+    private boolean captureNextSprite() {
+        final SpriteAtlas atlas = mSpriteAtlas;
+        if (atlas == null || atlas.isComplete() || atlas.isLoading() || !mSpritePlayback) {
+            return false;
+        }
+
+        if (mState.getState() != MenuStateMachine.STATE_CLOSED || mItemsAnimating || mButtonsReleased
+                || !ViewCompat.isLaidOut(this)) {
+            return false;
+        }
+
+        if (mCaptureTimeline == null) {
+            mCaptureTimeline = new MenuTimeline(mTimeline.getDurationOpen(), mTimeline.getDurationClose(),
+                    mTimeline.getDurationRing(), mTimeline.getLongClickDurationRing());
+            mCaptureTimeline.setOpenEasing(mTimeline.getOpenEasing());
+            mCaptureTimeline.setCloseEasing(mTimeline.getCloseEasing());
+            mCaptureMenuIcon = AppCompatResources.getDrawable(getContext(), mIconMenu);
+            mCaptureCloseIcon = AppCompatResources.getDrawable(getContext(), mIconClose);
+        }
+
+        final int index = atlas.getCapturedCount();
+        final int type = atlas.getFrameType(index);
+        if (type == MenuTimeline.TYPE_OPEN) {
+            mCaptureFrame.setClosed();
+        } else {
+            mCaptureFrame.setOpened(mDistance);
+        }
+        mCaptureTimeline.start(type, -1, mDistance, mCaptureFrame);
+        mCaptureTimeline.apply(atlas.getFramePlayTime(index), mCaptureFrame);
+
+        final Canvas canvas = atlas.beginCapture();
+        drawSprite(canvas, mCaptureFrame);
+        atlas.endCapture(canvas);
+
+        if (atlas.isComplete()) {
+            resetSpriteCapture();
+            atlas.save(getContext());
+            return false;
+        }
+        return true;
+    }
+
+    private void resetSpriteCapture() {
+        mCaptureTimeline = null;
+        mCaptureMenuIcon = null;
+        mCaptureCloseIcon = null;
+    }
+
+    /**
+     * Draws menu as it looks in specified frame. Views are drawn with transformations of the frame
+     * instead of their own, none of their properties is changed, so the menu on screen stays intact.
+     */
+    private void drawSprite(@NonNull Canvas canvas, @NonNull MenuFrame frame) {
+        final float left = mMenuButton.getLeft();
+        final float top = mMenuButton.getTop();
+        final int width = mMenuButton.getWidth();
+        final int height = mMenuButton.getHeight();
+
+        if (frame.menuScale > 0 && frame.menuAlpha > 0) {
+            final int count = canvas.save();
+            canvas.translate(left, top);
+            canvas.rotate(frame.menuRotation, width / 2f, height / 2f);
+            canvas.scale(frame.menuScale, frame.menuScale, width / 2f, height / 2f);
+            canvas.saveLayerAlpha(0, 0, width, height, Math.round(frame.menuAlpha * 255));
+
+            final Drawable background = mMenuButton.getBackground();
+            if (background != null) {
+                background.draw(canvas);
             }
-        });
-        buttonsAppear.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                final float fraction = valueAnimator.getAnimatedFraction();
-                final float value = (float)valueAnimator.getAnimatedValue();
-                offsetAndScaleButtons(centerX, centerY, angleStep, value, fraction);
+
+            final Drawable icon = frame.menuCloseIcon ? mCaptureCloseIcon : mCaptureMenuIcon;
+            if (icon != null) {
+                final int iconLeft = (width - icon.getIntrinsicWidth()) / 2;
+                final int iconTop = (height - icon.getIntrinsicHeight()) / 2;
+                icon.setBounds(iconLeft, iconTop, iconLeft + icon.getIntrinsicWidth(), iconTop + icon.getIntrinsicHeight());
+                icon.draw(canvas);
             }
-        });
-
-        final AnimatorSet result = new AnimatorSet();
-        result.playTogether(alphaAnimation, rotateAnimation, buttonsAppear);
-        result.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                mIsAnimating = true;
+
+            canvas.restoreToCount(count);
+        }
+
+        if (!frame.buttonsVisible || frame.buttonsScale <= 0) {
+            return;
+        }
+
+        for (int i = 0, cnt = mButtons.size(); i < cnt; i++) {
+            final View button = mButtons.get(i);
+            final int count = canvas.save();
+            canvas.translate(left + mGeometry.getX(i, frame.buttonsOffset), top + mGeometry.getY(i, frame.buttonsOffset));
+            canvas.scale(frame.buttonsScale, frame.buttonsScale, button.getWidth() / 2f, button.getHeight() / 2f);
+            button.draw(canvas);
+            canvas.restoreToCount(count);
+        }
+    }
+
+    /**
+     * @return key of everything that affects open and close frames.
+     */
+    @NonNull
+    private String getSpriteKey() {
+        final StringBuilder key = new StringBuilder(256)
+                .append(SpriteAtlas.getAppVersion(getContext()))
+                .append('|').append(getWidth()).append('x').append(getHeight())
+                .append('|').append(getResources().getConfiguration().uiMode)
+                .append('|').append(mDistance)
+                .append('|').append(mTimeline.getDurationOpen()).append(',').append(mTimeline.getDurationClose())
+                .append('|').append(mIconMenu).append(',').append(mIconClose)
+                .append('|').append(mMenuButton.getBackgroundTintList().getDefaultColor());
+
+        for (float input = 0.25f; input < 1f; input += 0.25f) {
+            key.append('|').append(mTimeline.getOpenEasing().ease(input))
+                    .append(',').append(mTimeline.getCloseEasing().ease(input));
+        }
+
+        for (int i = 0, cnt = mIcons.size(); i < cnt; i++) {
+            key.append('|').append(mIcons.get(i)).append(',').append(mColors.get(i));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Runs queued commands until one of them starts animation. Invoked on each command
+     * and at the end of each animation.
+     */
+    private void runCommands() {
+        while (!mState.isAnimating()) {
+            final int command = mCommands.poll();
+            if (command == MenuCommandQueue.COMMAND_NONE) {
+                return;
             }
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mIsAnimating = false;
+
+            final boolean open = mState.getState() == MenuStateMachine.STATE_OPEN;
+            switch (command) {
+                case MenuCommandQueue.COMMAND_OPEN:
+                case MenuCommandQueue.COMMAND_CLOSE:
+                    final boolean target = command == MenuCommandQueue.COMMAND_OPEN;
+                    if (open == target) {
+                        mCommands.finish(true);
+                    } else if (!mCommands.isCurrentAnimated()) {
+                        setOpenImmediately(target);
+                        mCommands.finish(true);
+                    } else if (target) {
+                        startOpenAnimation();
+                    } else {
+                        startCloseAnimation();
+                    }
+                    break;
+                case MenuCommandQueue.COMMAND_SELECT:
+                    final int index = mCommands.getCurrentButton();
+                    if (mCommandClicked) {
+                        mCommandClicked = false;
+                        mCommands.finish(true);
+                    } else if (index >= mIcons.size()) {
+                        mCommands.finish(false);
+                    } else if (!open) {
+                        startOpenAnimation();
+                    } else if (mState.startClick()) {
+                        mCommandClicked = true;
+                        startAnimation(MenuTimeline.TYPE_CLICK, index);
+                    }
+                    break;
             }
-        });
-
-        return result;
-    }
-
-    private Animator getCloseMenuAnimation() {
-        final ObjectAnimator scaleX1 = ObjectAnimator.ofFloat(mMenuButton, "scaleX", 0f);
-        final ObjectAnimator scaleY1 = ObjectAnimator.ofFloat(mMenuButton, "scaleY", 0f);
-        final ObjectAnimator alpha1 = ObjectAnimator.ofFloat(mMenuButton, "alpha", 0f);
-        final AnimatorSet set1 = new AnimatorSet();
-        set1.playTogether(scaleX1, scaleY1, alpha1);
-        set1.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                for (View view: mButtons) {
-                    view.setVisibility(View.INVISIBLE);
+        }
+    }
+
+    private void prepareButtonClick(@NonNull FloatingActionButton button, int index) {
+        final float x = mGeometry.getX(index, mDistance, mRotationCos, mRotationSin);
+        final float y = mGeometry.getY(index, mDistance, mRotationCos, mRotationSin);
+
+        mClickedButton = button;
+        mClickedPivotX = button.getPivotX();
+        mClickedPivotY = button.getPivotY();
+        button.setPivotX(mClickedPivotX - x);
+        button.setPivotY(mClickedPivotY - y);
+
+        mElevation = mMenuButton.getCompatElevation();
+
+        mRingView.setVisibility(View.INVISIBLE);
+        mRingView.setStartAngle(mGeometry.getRingStartAngle(index, mButtonsRotation));
+
+        final ColorStateList csl = button.getBackgroundTintList();
+        if (csl != null) {
+            mRingView.setStrokeColor(csl.getDefaultColor());
+        }
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            bringChildToFront(mRingView);
+            bringChildToFront(button);
+        } else {
+            button.setCompatElevation(mElevation + 1);
+            ViewCompat.setZ(mRingView, mElevation + 1);
+
+            for (View b : mButtons) {
+                if (b != button) {
+                    ((FloatingActionButton) b).setCompatElevation(0);
                 }
             }
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mMenuButton.setRotation(60f);
-                mMenuButton.setImageResource(mIconMenu);
+        }
+
+        mRingView.setScaleX(1f);
+        mRingView.setScaleY(1f);
+        mRingView.setVisibility(View.VISIBLE);
+    }
+
+    private void finishButtonClick() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            for (View b : mButtons) {
+                ((FloatingActionButton) b).setCompatElevation(mElevation);
             }
-        });
-
-        final ObjectAnimator angle = ObjectAnimator.ofFloat(mMenuButton, "rotation", 0);
-        final ObjectAnimator alpha2 = ObjectAnimator.ofFloat(mMenuButton, "alpha", 1f);
-        final ObjectAnimator scaleX2 = ObjectAnimator.ofFloat(mMenuButton, "scaleX", 1f);
-        final ObjectAnimator scaleY2 = ObjectAnimator.ofFloat(mMenuButton, "scaleY", 1f);
-        final AnimatorSet set2 = new AnimatorSet();
-        set2.setInterpolator(new OvershootInterpolator());
-        set2.playTogether(angle, alpha2, scaleX2, scaleY2);
-
-        final AnimatorSet result = new AnimatorSet();
-        result.play(set1).before(set2);
-        result.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-                mIsAnimating = true;
+
+            ViewCompat.setZ(mRingView, mElevation);
+        }
+
+        mClickedButton = null;
+    }
+
+    private void render() {
+        render(mFrame);
+    }
+
+    /**
+     * Renders animation frame, layout requests of icon and visibility changes are deferred.
+     */
+    private void renderAnimationFrame() {
+        mButtonsChanging = true;
+        try {
+            render();
+        } finally {
+            mButtonsChanging = false;
+        }
+    }
+
+    private void render(@NonNull MenuFrame frame) {
+        mMenuButton.setRotation(frame.menuRotation);
+        mMenuButton.setAlpha(frame.menuAlpha);
+        mMenuButton.setScaleX(frame.menuScale);
+        mMenuButton.setScaleY(frame.menuScale);
+
+        if (frame.menuCloseIcon != mCloseIconShown) {
+            mCloseIconShown = frame.menuCloseIcon;
+            mMenuButton.setImageLevel(mCloseIconShown ? LEVEL_ICON_CLOSE : LEVEL_ICON_MENU);
+        }
+
+        if (frame.buttonsVisible != mButtonsShown) {
+            mButtonsShown = frame.buttonsVisible;
+            final int visibility = mButtonsShown ? View.VISIBLE : View.INVISIBLE;
+            for (View view: mButtons) {
+                view.setVisibility(visibility);
             }
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mIsAnimating = false;
+        }
+
+        if (frame.buttonsOffset != mButtonsOffset || frame.buttonsScale != mButtonsScale
+                || frame.buttonsRotation != mButtonsRotation) {
+            mButtonsOffset = frame.buttonsOffset;
+            mButtonsScale = frame.buttonsScale;
+            if (frame.buttonsRotation != mButtonsRotation) {
+                mButtonsRotation = frame.buttonsRotation;
+                mRotationCos = (float) Math.cos(Math.toRadians(mButtonsRotation));
+                mRotationSin = (float) Math.sin(Math.toRadians(mButtonsRotation));
             }
-        });
-        return result;
+            offsetAndScaleButtons(mCenterX, mCenterY, mButtonsOffset, mButtonsScale);
+        }
+
+        if (mClickedButton != null) {
+            mClickedButton.setRotation(frame.clickedButtonRotation);
+            if (!frame.clickedButtonRotating) {
+                mClickedButton.setPivotX(mClickedPivotX);
+                mClickedButton.setPivotY(mClickedPivotY);
+            }
+        }
+
+        if (frame.ringVisible) {
+            if (frame.ringAngle != mRingView.getAngle()) {
+                mRingView.setAngle(frame.ringAngle);
+            }
+            mRingView.setScaleX(frame.ringScale);
+            mRingView.setScaleY(frame.ringScale);
+            mRingView.setAlpha(frame.ringAlpha);
+        }
+    }
+
+    private void offsetAndScaleButtons(float centerX, float centerY, float offset, float scale) {
+        for (int i = 0, cnt = mButtons.size(); i < cnt; i++) {
+            final View button = mButtons.get(i);
+            button.setX(centerX + mGeometry.getX(i, offset, mRotationCos, mRotationSin));
+            button.setY(centerY + mGeometry.getY(i, offset, mRotationCos, mRotationSin));
+            button.setScaleX(scale);
+            button.setScaleY(scale);
+        }
+    }
+
+    /**
+     * Updates menu buttons in place. Buttons of kept items, matched by icon and color, are reused
+     * and moved to the new slots. If menu is open, inserted, moved and removed buttons are animated.
+     * If called during animation, update is applied after animation end.
+     * @param icons buttons icons resource ids array. Items must be @DrawableRes.
+     * @param colors buttons colors array.
+     */
+    public void setItems(@NonNull List<Integer> icons, @NonNull List<Integer> colors) {
+        if (mState.isAnimating()) {
+            mPendingIcons = new ArrayList<>(icons);
+            mPendingColors = new ArrayList<>(colors);
+            return;
+        }
+
+        applyItems(icons, colors);
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_rasterize_icons}
+     * @param rasterize true to draw rasterized copies of non-bitmap icons during open animation.
+     */
+    public void setRasterizeIcons(boolean rasterize) {
+        mRasterizeIcons = rasterize;
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_rasterize_icons}
+     * @return true if non-bitmap icons are rasterized during open animation.
+     */
+    public boolean isRasterizeIcons() {
+        return mRasterizeIcons;
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_rotation_enabled}
+     * @param enabled true to let user rotate open menu by drag and fling.
+     */
+    public void setRotationEnabled(boolean enabled) {
+        mRotationEnabled = enabled;
+        if (!enabled) {
+            stopRotation();
+        }
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_rotation_enabled}
+     * @return true if open menu can be rotated by drag and fling.
+     */
+    public boolean isRotationEnabled() {
+        return mRotationEnabled;
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_sprite_playback}
+     * @param enabled true to play open and close animations from pre-rendered frames.
+     */
+    public void setSpritePlayback(boolean enabled) {
+        if (mSpritePlayback == enabled) {
+            return;
+        }
+
+        mSpritePlayback = enabled;
+        if (enabled) {
+            prepareSprites();
+        } else {
+            invalidateSprites();
+        }
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_sprite_playback}
+     * @return true if open and close animations are played from pre-rendered frames.
+     */
+    public boolean isSpritePlayback() {
+        return mSpritePlayback;
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_open_interpolator}
+     * Interpolator is sampled once into a lookup table, later changes of its state are ignored.
+     * @param interpolator curve of buttons moving out on open, null to use default overshoot.
+     */
+    public void setOpenInterpolator(@Nullable TimeInterpolator interpolator) {
+        mTimeline.setOpenEasing(interpolator != null ? InterpolatorEasings.bake(interpolator) : null);
+        invalidateSprites();
+    }
+
+    /**
+     * See {@link R.styleable#CircleMenuView_close_interpolator}
+     * Interpolator is sampled once into a lookup table, later changes of its state are ignored.
+     * @param interpolator curve of menu button coming back on close, null to use default overshoot.
+     */
+    public void setCloseInterpolator(@Nullable TimeInterpolator interpolator) {
+        mTimeline.setCloseEasing(interpolator != null ? InterpolatorEasings.bake(interpolator) : null);
+        invalidateSprites();
+    }
+
+    /**
+     * Sets source of animation frames and time. By default all menus share one scheduler driven
+     * by display vsync. Pass a scheduler over {@link com.ramotion.circlemenu.core.ManualFrameSource}
+     * to step animations frame by frame at exact times, e.g. in tests and benchmarks.
+     * Running animation moves to the new scheduler and continues from its next frame.
+     * @param scheduler frame scheduler, or null to use the default one.
+     */
+    public void setFrameScheduler(@Nullable FrameScheduler scheduler) {
+        final FrameScheduler current = getFrameScheduler();
+        final FrameScheduler next = scheduler != null ? scheduler : MenuAnimationScheduler.get();
+        if (current == next) {
+            return;
+        }
+
+        final boolean scheduled = current.contains(mFrameClient);
+        current.remove(mFrameClient);
+        mScheduler = scheduler;
+
+        if (scheduled) {
+            // Frame times of different schedulers aren't comparable, keep elapsed time only
+            mTimelineStartNanos = NO_TIME;
+            mRotation.resetClock();
+            next.add(mFrameClient);
+        }
+    }
+
+    /**
+     * @return frame scheduler which drives animations of this menu.
+     */
+    @NonNull
+    public FrameScheduler getFrameScheduler() {
+        return mScheduler != null ? mScheduler : MenuAnimationScheduler.get();
+    }
+
+    /**
+     * @return current buttons count.
+     */
+    public int getButtonsCount() {
+        return mIcons.size();
+    }
+
+    /**
+     * Releases satellite buttons, their icons and the ring path of this menu while it is closed.
+     * Buttons are recreated on the next open. Invoked automatically on low memory
+     * and on {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} and higher trim levels.
+     * Caches shared by all menus are dropped by the application-level callback only.
+     * @return true if menu is closed and its buttons are released, false if menu is in use.
+     */
+    public boolean trimMemory() {
+        if (mButtonsReleased) {
+            return true;
+        }
+
+        if (mState.getState() != MenuStateMachine.STATE_CLOSED || mItemsAnimating) {
+            return false;
+        }
+
+        mIconRasterizer.release();
+        mRingView.release();
+        mSpriteAtlas = null;
+        resetSpriteCapture();
+
+        // Closed buttons are invisible and don't affect other children, so no layout request is made,
+        // pending layout would otherwise run in the middle of the next open animation.
+        for (int i = 0, cnt = mButtons.size(); i < cnt; i++) {
+            final View button = mButtons.get(i);
+            button.setOnClickListener(null);
+            button.setOnLongClickListener(null);
+            removeViewInLayout(button);
+        }
+        mButtons.clear();
+        mButtonsReleased = true;
+        return true;
     }
 
     public void setIconMenu(@DrawableRes int iconId) {
         mIconMenu = iconId;
+        updateMenuIcon();
+        invalidateSprites();
     }
 
     @DrawableRes
@@ -591,6 +1546,8 @@ public class CircleMenuView extends FrameLayout {
 
     public void setIconClose(@DrawableRes int iconId) {
         mIconClose = iconId;
+        updateMenuIcon();
+        invalidateSprites();
     }
 
     @DrawableRes
@@ -603,7 +1560,8 @@ public class CircleMenuView extends FrameLayout {
      * @param duration close animation duration in milliseconds.
      */
     public void setDurationClose(int duration) {
-        mDurationClose = duration;
+        mTimeline.setDurationClose(duration);
+        invalidateSprites();
     }
 
     /**
@@ -611,7 +1569,7 @@ public class CircleMenuView extends FrameLayout {
      * @return current close animation duration.
      */
     public int getDurationClose() {
-        return mDurationClose;
+        return mTimeline.getDurationClose();
     }
 
     /**
@@ -619,7 +1577,8 @@ public class CircleMenuView extends FrameLayout {
      * @param duration open animation duration in milliseconds.
      */
     public void setDurationOpen(int duration) {
-        mDurationOpen = duration;
+        mTimeline.setDurationOpen(duration);
+        invalidateSprites();
     }
 
     /**
@@ -627,7 +1586,7 @@ public class CircleMenuView extends FrameLayout {
      * @return current open animation duration.
      */
     public int getDurationOpen() {
-        return mDurationOpen;
+        return mTimeline.getDurationOpen();
     }
 
     /**
@@ -635,7 +1594,7 @@ public class CircleMenuView extends FrameLayout {
      * @param duration ring animation duration in milliseconds.
      */
     public void setDurationRing(int duration) {
-        mDurationRing = duration;
+        mTimeline.setDurationRing(duration);
     }
 
     /**
@@ -643,7 +1602,7 @@ public class CircleMenuView extends FrameLayout {
      * @return current ring animation duration.
      */
     public int getDurationRing() {
-        return mDurationRing;
+        return mTimeline.getDurationRing();
     }
 
     /**
@@ -651,7 +1610,7 @@ public class CircleMenuView extends FrameLayout {
      * @return current long click ring animation duration.
      */
     public int getLongClickDurationRing() {
-        return mLongClickDurationRing;
+        return mTimeline.getLongClickDurationRing();
     }
 
     /**
@@ -659,16 +1618,40 @@ public class CircleMenuView extends FrameLayout {
      * @param duration long click ring animation duration in milliseconds.
      */
     public void setLongClickDurationRing(int duration) {
-        mLongClickDurationRing = duration;
+        mTimeline.setLongClickDurationRing(duration);
     }
 
     /**
      * See {@link R.styleable#CircleMenuView_distance}
+     * Distance set during animation is applied after animation end.
      * @param distance in pixels.
      */
     public void setDistance(float distance) {
+        if (mState.isAnimating()) {
+            mPendingDistance = distance;
+            return;
+        }
+
+        mPendingDistance = Float.NaN;
+        applyDistance(distance);
+    }
+
+    private void applyDistance(float distance) {
+        if (mDistance == distance) {
+            return;
+        }
+
         mDistance = distance;
-        invalidate();
+        mRingRadius = MenuGeometry.getRingRadius(mButtonSize, mDistance);
+        mDesiredSize = MenuGeometry.getDesiredSize(mRingRadius);
+
+        if (mState.getState() == MenuStateMachine.STATE_OPEN) {
+            mFrame.buttonsOffset = distance;
+            render();
+        }
+
+        invalidateSprites();
+        requestLayout();
     }
 
     /**
@@ -684,7 +1667,7 @@ public class CircleMenuView extends FrameLayout {
      * @param listener new event listener or null.
      */
     public void setEventListener(@Nullable EventListener listener) {
-        mListener = listener;
+        mEvents.setPrimary(listener);
     }
 
     /**
@@ -692,62 +1675,116 @@ public class CircleMenuView extends FrameLayout {
      * @return current event listener or null.
      */
     public EventListener getEventListener() {
-        return mListener;
+        return mEvents.getPrimary();
     }
 
-    private void openOrClose(boolean open, boolean animate) {
-        if (mIsAnimating) {
-            return;
-        }
-
-        if (open && !mClosedState) {
-            return;
-        }
-
-        if (!open && mClosedState) {
-            return;
-        }
-
-        if (animate) {
-            mMenuButton.performClick();
-        } else {
-            mClosedState = !open;
+    /**
+     * Adds event listener, invoked synchronously on the UI thread after the one set by
+     * {@link #setEventListener(EventListener)}.
+     * @param listener event listener to add.
+     */
+    public void addEventListener(@NonNull EventListener listener) {
+        mEvents.add(listener);
+    }
 
-            final float centerX = mMenuButton.getX();
-            final float centerY = mMenuButton.getY();
+    /**
+     * Adds events consumer, invoked on specified executor. Events are queued without blocking
+     * the UI thread, so the consumer may do heavy work, e.g. analytics or logging. Consumer receives
+     * {@code MenuEventQueue.EVENT_*} codes and button indexes only, never the view, and can't consume
+     * long clicks.
+     * @param consumer events consumer to add.
+     * @param executor executor to invoke consumer on.
+     */
+    public void addEventListener(@NonNull MenuEventQueue.Consumer consumer, @NonNull Executor executor) {
+        mEvents.add(consumer, executor);
+    }
 
-            final int buttonsCount = mButtons.size();
-            final float angleStep = 360f / buttonsCount;
+    /**
+     * @param listener event listener added by {@link #addEventListener(EventListener)}.
+     * @return true if listener was removed, false if it wasn't found.
+     */
+    public boolean removeEventListener(@NonNull EventListener listener) {
+        return mEvents.remove(listener);
+    }
 
-            final float offset = open ? mDistance : 0f;
-            final float scale = open ? 1f : 0f;
+    /**
+     * @param consumer events consumer added by {@link #addEventListener(MenuEventQueue.Consumer, Executor)}.
+     * @return true if consumer was removed, false if it wasn't found.
+     */
+    public boolean removeEventListener(@NonNull MenuEventQueue.Consumer consumer) {
+        return mEvents.remove(consumer);
+    }
 
-            mMenuButton.setImageResource(open ? mIconClose : mIconMenu);
-            mMenuButton.setAlpha(open ? DEFAULT_CLOSE_ICON_ALPHA : 1f);
+    private void setOpenImmediately(boolean open) {
+        mState.set(open);
+        stopRotation();
+        mRotation.reset(0);
 
-            final int visibility = open ? View.VISIBLE : View.INVISIBLE;
-            for (View view: mButtons) {
-                view.setVisibility(visibility);
-            }
+        mCenterX = mMenuButton.getX();
+        mCenterY = mMenuButton.getY();
 
-            offsetAndScaleButtons(centerX, centerY, angleStep, offset, scale);
+        if (open) {
+            restoreButtons();
+            mFrame.setOpened(mDistance);
+        } else {
+            mFrame.setClosed();
         }
+
+        render();
     }
 
     /**
-     * Open menu programmatically
+     * Open menu programmatically. If menu is animating, menu is opened after animation end.
      * @param animate open with animation or not
      */
     public void open(boolean animate) {
-        openOrClose(true, animate);
+        open(animate, null);
     }
 
     /**
-     * Close menu programmatically
+     * Open menu programmatically. Request is queued if menu is animating, pending open or close
+     * request is replaced, see {@link MenuCommandQueue}.
+     * @param animate open with animation or not
+     * @param callback called when menu is open, or when request is replaced by a later one.
+     */
+    public void open(boolean animate, @Nullable MenuCommandQueue.Callback callback) {
+        mCommands.open(animate, callback);
+        runCommands();
+    }
+
+    /**
+     * Close menu programmatically. If menu is animating, menu is closed after animation end.
      * @param animate close with animation or not
      */
     public void close(boolean animate) {
-        openOrClose(false, animate);
+        close(animate, null);
+    }
+
+    /**
+     * Close menu programmatically. Request is queued if menu is animating, pending open or close
+     * request is replaced, see {@link MenuCommandQueue}.
+     * @param animate close with animation or not
+     * @param callback called when menu is closed, or when request is replaced by a later one.
+     */
+    public void close(boolean animate, @Nullable MenuCommandQueue.Callback callback) {
+        mCommands.close(animate, callback);
+        runCommands();
+    }
+
+    /**
+     * Click button programmatically, with the same animation and events as user click.
+     * Closed menu is opened first. Request is queued if menu is animating, pending requests
+     * are replaced, see {@link MenuCommandQueue}.
+     * @param buttonIndex zero-based index of the button.
+     * @param callback called when click animation ends, or when request is replaced by a later one.
+     */
+    public void selectButton(int buttonIndex, @Nullable MenuCommandQueue.Callback callback) {
+        if (buttonIndex < 0) {
+            throw new IllegalArgumentException("Invalid button index: " + buttonIndex);
+        }
+
+        mCommands.select(buttonIndex, callback);
+        runCommands();
     }
 
 }
@@ -0,0 +1,179 @@
+package com.ramotion.circlemenu;
+
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.ramotion.circlemenu.core.MenuEventQueue;
+
+import java.util.concurrent.Executor;
+
+
+/**
+ * Delivers CircleMenuView events to the primary listener and to any number of subscribers.
+ * Subscribers lists are copy-on-write, so dispatch never locks or allocates. Asynchronous subscribers
+ * receive event codes from a preallocated {@link MenuEventQueue} on their executor, they never get
+ * the view and never take part in the long click result.
+ */
+final class EventDispatcher {
+
+    private static final CircleMenuView.EventListener[] NO_LISTENERS = new CircleMenuView.EventListener[0];
+    private static final MenuEventQueue[] NO_QUEUES = new MenuEventQueue[0];
+    private static final MenuEventQueue.Consumer[] NO_CONSUMERS = new MenuEventQueue.Consumer[0];
+
+    private final CircleMenuView mView;
+
+    private CircleMenuView.EventListener mPrimary;
+    private volatile CircleMenuView.EventListener[] mListeners = NO_LISTENERS;
+    private volatile MenuEventQueue[] mQueues = NO_QUEUES;
+    private MenuEventQueue.Consumer[] mConsumers = NO_CONSUMERS;
+
+    EventDispatcher(@NonNull CircleMenuView view) {
+        mView = view;
+    }
+
+    void setPrimary(@Nullable CircleMenuView.EventListener listener) {
+        mPrimary = listener;
+    }
+
+    @Nullable
+    CircleMenuView.EventListener getPrimary() {
+        return mPrimary;
+    }
+
+    synchronized void add(@NonNull CircleMenuView.EventListener listener) {
+        final CircleMenuView.EventListener[] current = mListeners;
+        final CircleMenuView.EventListener[] result = new CircleMenuView.EventListener[current.length + 1];
+        System.arraycopy(current, 0, result, 0, current.length);
+        result[current.length] = listener;
+        mListeners = result;
+    }
+
+    synchronized void add(@NonNull MenuEventQueue.Consumer consumer, @NonNull Executor executor) {
+        final int count = mConsumers.length;
+
+        final MenuEventQueue.Consumer[] consumers = new MenuEventQueue.Consumer[count + 1];
+        System.arraycopy(mConsumers, 0, consumers, 0, count);
+        consumers[count] = consumer;
+
+        final MenuEventQueue[] queues = new MenuEventQueue[count + 1];
+        System.arraycopy(mQueues, 0, queues, 0, count);
+        queues[count] = new MenuEventQueue(MenuEventQueue.DEFAULT_CAPACITY, executor, consumer);
+
+        mConsumers = consumers;
+        mQueues = queues;
+    }
+
+    synchronized boolean remove(@NonNull CircleMenuView.EventListener listener) {
+        final CircleMenuView.EventListener[] current = mListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                mListeners = current.length == 1 ? NO_LISTENERS : without(current, i, new CircleMenuView.EventListener[current.length - 1]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized boolean remove(@NonNull MenuEventQueue.Consumer consumer) {
+        final MenuEventQueue.Consumer[] current = mConsumers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == consumer) {
+                final boolean last = current.length == 1;
+                mConsumers = last ? NO_CONSUMERS : without(current, i, new MenuEventQueue.Consumer[current.length - 1]);
+                mQueues = last ? NO_QUEUES : without(mQueues, i, new MenuEventQueue[current.length - 1]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if primary listener or synchronous subscribers are set, the only ones
+     * which can consume long click.
+     */
+    boolean hasListeners() {
+        return mPrimary != null || mListeners.length > 0;
+    }
+
+    boolean hasConsumers() {
+        return mQueues.length > 0;
+    }
+
+    void dispatch(int event, int buttonIndex) {
+        if (mPrimary != null) {
+            deliver(mPrimary, mView, event, buttonIndex);
+        }
+
+        final CircleMenuView.EventListener[] listeners = mListeners;
+        for (CircleMenuView.EventListener listener : listeners) {
+            deliver(listener, mView, event, buttonIndex);
+        }
+
+        publish(event, buttonIndex);
+    }
+
+    /**
+     * Long click result is collected from the primary listener and synchronous subscribers.
+     * Asynchronous subscribers are notified only.
+     * @return true if any listener consumed the long click.
+     */
+    boolean dispatchLongClick(int buttonIndex) {
+        boolean result = false;
+        if (mPrimary != null) {
+            result = mPrimary.onButtonLongClick(mView, buttonIndex);
+        }
+
+        final CircleMenuView.EventListener[] listeners = mListeners;
+        for (CircleMenuView.EventListener listener : listeners) {
+            result |= listener.onButtonLongClick(mView, buttonIndex);
+        }
+
+        publish(MenuEventQueue.EVENT_BUTTON_LONG_CLICK, buttonIndex);
+        return result;
+    }
+
+    private void publish(int event, int buttonIndex) {
+        final MenuEventQueue[] queues = mQueues;
+        for (MenuEventQueue queue : queues) {
+            queue.publish(event, buttonIndex);
+        }
+    }
+
+    @NonNull
+    private static <T> T[] without(@NonNull T[] source, int index, @NonNull T[] result) {
+        System.arraycopy(source, 0, result, 0, index);
+        System.arraycopy(source, index + 1, result, index, source.length - index - 1);
+        return result;
+    }
+
+    private static void deliver(@NonNull CircleMenuView.EventListener listener, @NonNull CircleMenuView view, int event, int buttonIndex) {
+        switch (event) {
+            case MenuEventQueue.EVENT_MENU_OPEN_START:
+                listener.onMenuOpenAnimationStart(view);
+                break;
+            case MenuEventQueue.EVENT_MENU_OPEN_END:
+                listener.onMenuOpenAnimationEnd(view);
+                break;
+            case MenuEventQueue.EVENT_MENU_CLOSE_START:
+                listener.onMenuCloseAnimationStart(view);
+                break;
+            case MenuEventQueue.EVENT_MENU_CLOSE_END:
+                listener.onMenuCloseAnimationEnd(view);
+                break;
+            case MenuEventQueue.EVENT_BUTTON_CLICK_START:
+                listener.onButtonClickAnimationStart(view, buttonIndex);
+                break;
+            case MenuEventQueue.EVENT_BUTTON_CLICK_END:
+                listener.onButtonClickAnimationEnd(view, buttonIndex);
+                break;
+            case MenuEventQueue.EVENT_BUTTON_LONG_CLICK_START:
+                listener.onButtonLongClickAnimationStart(view, buttonIndex);
+                break;
+            case MenuEventQueue.EVENT_BUTTON_LONG_CLICK_END:
+                listener.onButtonLongClickAnimationEnd(view, buttonIndex);
+                break;
+        }
+    }
+
+}
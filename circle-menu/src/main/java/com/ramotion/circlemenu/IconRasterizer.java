@@ -0,0 +1,164 @@
+package com.ramotion.circlemenu;
+
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.design.widget.FloatingActionButton;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.List;
+
+
+/**
+ * Temporarily replaces non-bitmap button icons, e.g. vector drawables, with bitmaps rasterized
+ * at the icon final size. Scaled bitmap is drawn as is, while vector paths would be re-rasterized
+ * at every new scale of the open animation. Bitmaps are shared by all menus and rasterized once
+ * per icon resource.
+ */
+final class IconRasterizer {
+
+    private static final int CACHE_SIZE_BYTES = 2 * 1024 * 1024;
+
+    private static final LruCache<Integer, Bitmap> sBitmaps = new LruCache<Integer, Bitmap>(CACHE_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(Integer key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    private final SparseArray<BitmapDrawable> mWrappers = new SparseArray<>();
+    private final Rect mBounds = new Rect();
+
+    private Drawable[] mOriginals = new Drawable[0];
+    private boolean mSwapped;
+
+    /**
+     * Swaps non-bitmap icons of the buttons with rasterized copies.
+     * @param res resources to create bitmap drawables.
+     * @param buttons menu buttons.
+     * @param icons buttons icons resource ids, in the same order as buttons.
+     */
+    void rasterize(@NonNull Resources res, @NonNull List<View> buttons, @NonNull List<Integer> icons) {
+        if (mSwapped) {
+            return;
+        }
+
+        final int count = buttons.size();
+        if (mOriginals.length < count) {
+            mOriginals = new Drawable[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            final FloatingActionButton button = (FloatingActionButton) buttons.get(i);
+            final Drawable icon = button.getDrawable();
+            if (icon == null || icon instanceof BitmapDrawable) {
+                continue;
+            }
+
+            final BitmapDrawable raster = getRaster(res, icons.get(i), icon);
+            if (raster != null) {
+                mOriginals[i] = icon;
+                button.setImageDrawable(raster);
+            }
+        }
+
+        mSwapped = true;
+    }
+
+    /**
+     * Puts original icons back.
+     * @param buttons menu buttons, the same as passed to {@link #rasterize(Resources, List, List)}.
+     */
+    void restore(@NonNull List<View> buttons) {
+        if (!mSwapped) {
+            return;
+        }
+
+        for (int i = 0, cnt = Math.min(buttons.size(), mOriginals.length); i < cnt; i++) {
+            if (mOriginals[i] != null) {
+                ((FloatingActionButton) buttons.get(i)).setImageDrawable(mOriginals[i]);
+                mOriginals[i] = null;
+            }
+        }
+
+        mSwapped = false;
+    }
+
+    /**
+     * Forgets original icon of the button, e.g. when its icon is replaced or the button is removed,
+     * so a later {@link #restore(List)} doesn't put stale icon on another button.
+     * @param index button index, as passed to {@link #rasterize(Resources, List, List)}.
+     */
+    void discard(int index) {
+        if (index < mOriginals.length) {
+            mOriginals[index] = null;
+        }
+    }
+
+    /**
+     * Drops bitmap wrappers of this menu. Must not be called while icons are swapped.
+     */
+    void release() {
+        if (mSwapped) {
+            return;
+        }
+
+        mWrappers.clear();
+        mOriginals = new Drawable[0];
+    }
+
+    /**
+     * Drops bitmaps shared by all menus, they are rasterized again on demand.
+     */
+    static void trimCache() {
+        sBitmaps.evictAll();
+    }
+
+    boolean isSwapped() {
+        return mSwapped;
+    }
+
+    @Nullable
+    private BitmapDrawable getRaster(@NonNull Resources res, int iconId, @NonNull Drawable icon) {
+        final int width = icon.getIntrinsicWidth();
+        final int height = icon.getIntrinsicHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        final BitmapDrawable wrapper = mWrappers.get(iconId);
+        if (wrapper != null && isSize(wrapper.getBitmap(), width, height)) {
+            return wrapper;
+        }
+
+        Bitmap bitmap = sBitmaps.get(iconId);
+        if (bitmap == null || !isSize(bitmap, width, height)) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            bitmap.setDensity(res.getDisplayMetrics().densityDpi);
+
+            icon.copyBounds(mBounds);
+            icon.setBounds(0, 0, width, height);
+            icon.draw(new Canvas(bitmap));
+            icon.setBounds(mBounds);
+
+            sBitmaps.put(iconId, bitmap);
+        }
+
+        final BitmapDrawable result = new BitmapDrawable(res, bitmap);
+        mWrappers.put(iconId, result);
+        return result;
+    }
+
+    private static boolean isSize(@NonNull Bitmap bitmap, int width, int height) {
+        return bitmap.getWidth() == width && bitmap.getHeight() == height;
+    }
+
+}
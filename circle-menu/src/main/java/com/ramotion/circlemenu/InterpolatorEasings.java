@@ -0,0 +1,55 @@
+package com.ramotion.circlemenu;
+
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.support.annotation.AnimRes;
+import android.support.annotation.InterpolatorRes;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+import android.view.animation.AnimationUtils;
+
+import com.ramotion.circlemenu.core.BakedEasing;
+import com.ramotion.circlemenu.core.Easing;
+
+
+/**
+ * Bakes platform interpolators into lookup-table easings. Interpolators loaded from resources
+ * are baked once and shared by all menus. Must be used from the UI thread.
+ */
+final class InterpolatorEasings {
+
+    private static final SparseArray<BakedEasing> sBaked = new SparseArray<>();
+
+    private InterpolatorEasings() {}
+
+    /**
+     * @param context context to load interpolator.
+     * @param id interpolator or animation resource id.
+     * @return shared baked interpolator.
+     */
+    @NonNull
+    static BakedEasing get(@NonNull Context context, @AnimRes @InterpolatorRes int id) {
+        BakedEasing result = sBaked.get(id);
+        if (result == null) {
+            result = bake(AnimationUtils.loadInterpolator(context, id));
+            sBaked.put(id, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param interpolator interpolator to sample.
+     * @return new baked interpolator.
+     */
+    @NonNull
+    static BakedEasing bake(@NonNull final TimeInterpolator interpolator) {
+        return BakedEasing.bake(new Easing() {
+            @Override
+            public float ease(float input) {
+                return interpolator.getInterpolation(input);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.ramotion.circlemenu;
+
+
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import com.ramotion.circlemenu.core.FrameScheduler;
+
+
+/**
+ * Process-wide scheduler of menu animations. Registers a single Choreographer frame callback
+ * while any menu is animating, and ticks all animating menus from it.
+ */
+final class MenuAnimationScheduler implements FrameScheduler.FrameSource, Choreographer.FrameCallback {
+
+    private static FrameScheduler sScheduler;
+
+    private FrameScheduler mScheduler;
+
+    private MenuAnimationScheduler() {}
+
+    /**
+     * Must be called from the UI thread.
+     * @return shared scheduler.
+     */
+    @NonNull
+    static FrameScheduler get() {
+        if (sScheduler == null) {
+            final MenuAnimationScheduler source = new MenuAnimationScheduler();
+            sScheduler = new FrameScheduler(source);
+            source.mScheduler = sScheduler;
+        }
+        return sScheduler;
+    }
+
+    @Override
+    public void postFrame(FrameScheduler scheduler) {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.SCHEDULER_FRAME);
+        mScheduler.doFrame(frameTimeNanos);
+        CircleMenuTrace.endSection(traced);
+    }
+
+}
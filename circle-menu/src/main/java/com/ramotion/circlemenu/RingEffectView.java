@@ -9,17 +9,18 @@ import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.View;
 
+import com.ramotion.circlemenu.core.RingSweep;
 
-public class RingEffectView extends View {
 
-    private static final int STEP_DEGREE = 5;
+public class RingEffectView extends View {
 
     private final Paint mPaint;
     private final Path mPath = new Path();
+    private final RingSweep mSweep = new RingSweep();
+    private final float[] mPoints = new float[RingSweep.MAX_POINTS * 2];
 
-    private float mAngle;
-    private float mStartAngle;
     private int mRadius;
+    private int mSegments;
 
     public RingEffectView(Context context) {
         this(context, null);
@@ -38,10 +39,12 @@ public class RingEffectView extends View {
         super.onDraw(canvas);
 
         if (!mPath.isEmpty()) {
+            final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.RING_DRAW);
             canvas.save();
             canvas.translate(getWidth() / 2, getHeight() / 2);
             canvas.drawPath(mPath, mPaint);
             canvas.restore();
+            CircleMenuTrace.endSection(traced);
         }
     }
 
@@ -57,49 +60,42 @@ public class RingEffectView extends View {
     }
 
     public float getAngle() {
-        return mAngle;
+        return mSweep.getAngle();
     }
 
     public void setAngle(@FloatRange(from = 0.0, to = 360.0) float angle) {
-        final float diff = angle - mAngle;
-        final int stepCount = (int) (diff / STEP_DEGREE);
-        final float stepMod = diff % STEP_DEGREE;
-
-        final float sw = mPaint.getStrokeWidth() * 0.5f;
-        final float radius = mRadius - sw;
-
-        for (int i = 1; i <= stepCount; i++ ) {
-            final float stepAngel = mStartAngle + mAngle + STEP_DEGREE * i;
-            final float x = (float) Math.cos(Math.toRadians(stepAngel)) * radius;
-            final float y = (float) Math.sin(Math.toRadians(stepAngel)) * radius;
-            mPath.lineTo(x, y);
+        final boolean traced = CircleMenuTrace.beginSection(CircleMenuTrace.RING_SWEEP);
+        final int count = mSweep.sweepTo(angle, mPoints);
+        for (int i = 0; i < count; i++) {
+            mPath.lineTo(mPoints[i * 2], mPoints[i * 2 + 1]);
         }
 
-        final float stepAngel = mStartAngle + mAngle + STEP_DEGREE * stepCount + stepMod;
-        final float x = (float) Math.cos(Math.toRadians(stepAngel)) * radius;
-        final float y = (float) Math.sin(Math.toRadians(stepAngel)) * radius;
-        mPath.lineTo(x, y);
-
-        mAngle = angle;
+        mSegments += count;
+        CircleMenuTrace.ringSegments(mSegments);
+        CircleMenuTrace.endSection(traced);
 
         invalidate();
     }
 
     public float getStartAngle() {
-        return mStartAngle;
+        return mSweep.getStartAngle();
     }
 
     public void setStartAngle(@FloatRange(from = 0.0, to = 360.0) float startAngle) {
-        mStartAngle = startAngle;
-        mAngle = 0;
-
         final float sw = mPaint.getStrokeWidth() * 0.5f;
-        final float radius = mRadius - sw;
+        mSweep.reset(startAngle, mRadius - sw, mPoints);
+
+        mPath.reset();
+        mPath.moveTo(mPoints[0], mPoints[1]);
+        mSegments = 0;
+    }
 
+    /**
+     * Frees memory of the last sweep path, e.g. when menu is closed for a long time.
+     */
+    public void release() {
         mPath.reset();
-        final float x = (float) Math.cos(Math.toRadians(startAngle)) * radius;
-        final float y = (float) Math.sin(Math.toRadians(startAngle)) * radius;
-        mPath.moveTo(x, y);
+        mSegments = 0;
     }
 
     public void setStrokeColor(int color) {
@@ -0,0 +1,58 @@
+package com.ramotion.circlemenu;
+
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.NonNull;
+
+
+/**
+ * Process-wide caches shared by all menus: rasterized icons and sprite atlases. One application-level
+ * callback drops them on low memory. Resources of each menu are released by the menu itself,
+ * see {@link CircleMenuView#trimMemory()}.
+ */
+final class SharedCaches {
+
+    private static final ComponentCallbacks2 sCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                trim();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            trim();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {}
+    };
+
+    private static Context sApplication;
+
+    private SharedCaches() {}
+
+    /**
+     * Registers application-level callback once. Must be called from the UI thread.
+     * @param context any context of the application.
+     */
+    static void register(@NonNull Context context) {
+        final Context application = context.getApplicationContext();
+        if (sApplication != application) {
+            sApplication = application;
+            application.registerComponentCallbacks(sCallbacks);
+        }
+    }
+
+    /**
+     * Drops bitmaps shared by all menus, they are rasterized, loaded or captured again on demand.
+     */
+    static void trim() {
+        IconRasterizer.trimCache();
+        SpriteAtlas.trimCache();
+    }
+
+}
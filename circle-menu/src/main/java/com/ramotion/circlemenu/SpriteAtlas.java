@@ -0,0 +1,459 @@
+package com.ramotion.circlemenu;
+
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.ramotion.circlemenu.core.MenuTimeline;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Pre-rendered frames of open and close animations, packed into one bitmap grid.
+ * Frames are sampled at {@link #FRAME_RATE} and scaled down to fit {@link #BUDGET_BYTES}.
+ * Atlases are shared by all menus of the same configuration: complete ones through a memory cache,
+ * incomplete ones while they are loaded or captured, so each configuration is decoded or captured once.
+ * Complete atlases are cached on disk.
+ * Disk cache keeps files of the installed app version only, within {@link #DISK_CACHE_BYTES}.
+ * Frames are captured on the UI thread, disk I/O runs in background.
+ */
+final class SpriteAtlas {
+
+    static final int FRAME_RATE = 30;
+    static final int BUDGET_BYTES = 8 * 1024 * 1024;
+
+    private static final String TAG = "SpriteAtlas";
+    private static final String CACHE_DIR = "circle-menu-sprites";
+    private static final int CACHE_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final long DISK_CACHE_BYTES = 32 * 1024 * 1024;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static final LruCache<String, SpriteAtlas> sAtlases = new LruCache<String, SpriteAtlas>(CACHE_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(String key, SpriteAtlas value) {
+            return value.getByteCount();
+        }
+    };
+
+    /**
+     * Atlases being loaded or captured. Referenced weakly, atlas of no menu is dropped with its partial bitmap.
+     */
+    private static final Map<String, WeakReference<SpriteAtlas>> sPending = new HashMap<>();
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static long sAppVersion = -1;
+
+    /**
+     * Receives result of {@link #load(Context, LoadCallback)}.
+     */
+    interface LoadCallback {
+        void onAtlasLoaded(@NonNull SpriteAtlas atlas, boolean success);
+    }
+
+    private final String mKey;
+    private final int mOpenFrames;
+    private final int mCloseFrames;
+    private final int mColumns;
+    private final int mCellWidth;
+    private final int mCellHeight;
+    private final float mScale;
+
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mSrc = new Rect();
+    private final Rect mDst = new Rect();
+
+    private final List<LoadCallback> mLoadCallbacks = new ArrayList<>(1);
+
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+    private int mCaptured;
+    private boolean mLoading;
+
+    /**
+     * @param key configuration key, atlas is valid only for menus of the same key.
+     * @param width menu width in pixels.
+     * @param height menu height in pixels.
+     * @param durationOpen open animation duration in milliseconds.
+     * @param durationClose duration of each of two close animation phases in milliseconds.
+     */
+    SpriteAtlas(@NonNull String key, int width, int height, int durationOpen, int durationClose) {
+        mKey = key;
+        mOpenFrames = durationOpen * FRAME_RATE / 1000 + 1;
+        mCloseFrames = durationClose * 2 * FRAME_RATE / 1000 + 1;
+
+        final int frames = mOpenFrames + mCloseFrames;
+        final long maxCellPixels = BUDGET_BYTES / BYTES_PER_PIXEL / frames;
+        mScale = (float) Math.min(1.0, Math.sqrt((double) maxCellPixels / ((long) width * height)));
+        mCellWidth = Math.max(1, (int) (width * mScale));
+        mCellHeight = Math.max(1, (int) (height * mScale));
+        mColumns = (int) Math.ceil(Math.sqrt(frames));
+    }
+
+    /**
+     * @param key configuration key.
+     * @return complete atlas of specified configuration, or null.
+     */
+    @Nullable
+    static SpriteAtlas get(@NonNull String key) {
+        return sAtlases.get(key);
+    }
+
+    /**
+     * Finds atlas of specified configuration, complete or being loaded or captured for another menu,
+     * or creates one and starts loading it from disk cache.
+     * @param context context to locate cache directory.
+     * @param key configuration key.
+     * @param callback called on the UI thread when disk load of the returned atlas ends, if it is loading.
+     * @return atlas shared by all menus of the same configuration.
+     * @see #SpriteAtlas(String, int, int, int, int)
+     */
+    @NonNull
+    static SpriteAtlas obtain(@NonNull Context context, @NonNull String key, int width, int height,
+                              int durationOpen, int durationClose, @NonNull LoadCallback callback) {
+        SpriteAtlas atlas = sAtlases.get(key);
+        if (atlas != null) {
+            return atlas;
+        }
+
+        final WeakReference<SpriteAtlas> ref = sPending.get(key);
+        atlas = ref != null ? ref.get() : null;
+        if (atlas == null) {
+            atlas = new SpriteAtlas(key, width, height, durationOpen, durationClose);
+            sPending.put(key, new WeakReference<>(atlas));
+            atlas.load(context, callback);
+        } else if (atlas.mLoading) {
+            atlas.mLoadCallbacks.add(callback);
+        }
+        return atlas;
+    }
+
+    /**
+     * Drops atlases shared by all menus, they are loaded from disk or captured again on demand.
+     */
+    static void trimCache() {
+        sAtlases.evictAll();
+
+        final Iterator<WeakReference<SpriteAtlas>> it = sPending.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @param context any context, used to detect app updates.
+     * @return installed app version, resource ids of other versions may differ.
+     */
+    static long getAppVersion(@NonNull Context context) {
+        if (sAppVersion < 0) {
+            try {
+                sAppVersion = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+            } catch (PackageManager.NameNotFoundException e) {
+                sAppVersion = 0;
+            }
+        }
+        return sAppVersion;
+    }
+
+    @NonNull
+    String getKey() {
+        return mKey;
+    }
+
+    int getFrameCount() {
+        return mOpenFrames + mCloseFrames;
+    }
+
+    int getCapturedCount() {
+        return mCaptured;
+    }
+
+    boolean isComplete() {
+        return mCaptured == getFrameCount();
+    }
+
+    /**
+     * @return true while atlas is being read from disk cache, frames must not be captured meanwhile.
+     */
+    boolean isLoading() {
+        return mLoading;
+    }
+
+    /**
+     * @param index frame index.
+     * @return {@code MenuTimeline.TYPE_OPEN} or {@code MenuTimeline.TYPE_CLOSE}.
+     */
+    int getFrameType(int index) {
+        return index < mOpenFrames ? MenuTimeline.TYPE_OPEN : MenuTimeline.TYPE_CLOSE;
+    }
+
+    /**
+     * @param index frame index.
+     * @return play time of the frame in its animation, in milliseconds.
+     */
+    long getFramePlayTime(int index) {
+        final int local = index < mOpenFrames ? index : index - mOpenFrames;
+        return local * 1000L / FRAME_RATE;
+    }
+
+    /**
+     * @param type {@code MenuTimeline.TYPE_OPEN} or {@code MenuTimeline.TYPE_CLOSE}.
+     * @param playTime time since animation start in milliseconds.
+     * @return index of the frame to show.
+     */
+    int getFrame(int type, long playTime) {
+        final int local = (int) Math.max(0, playTime * FRAME_RATE / 1000);
+        if (type == MenuTimeline.TYPE_OPEN) {
+            return Math.min(local, mOpenFrames - 1);
+        }
+        return mOpenFrames + Math.min(local, mCloseFrames - 1);
+    }
+
+    /**
+     * Prepares canvas to draw the next frame, at menu size. Frames must be captured in order.
+     * @return canvas, must be passed to {@link #endCapture(Canvas)}.
+     */
+    @NonNull
+    Canvas beginCapture() {
+        if (mBitmap == null) {
+            final int rows = (getFrameCount() + mColumns - 1) / mColumns;
+            mBitmap = Bitmap.createBitmap(mColumns * mCellWidth, rows * mCellHeight, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        }
+
+        setCell(mCaptured, mSrc);
+
+        mCanvas.save();
+        mCanvas.clipRect(mSrc);
+        mCanvas.translate(mSrc.left, mSrc.top);
+        mCanvas.scale(mScale, mScale);
+        return mCanvas;
+    }
+
+    void endCapture(@NonNull Canvas canvas) {
+        canvas.restore();
+        mCaptured++;
+
+        if (isComplete()) {
+            mCanvas = null;
+            share();
+        }
+    }
+
+    /**
+     * Draws frame scaled to menu size.
+     */
+    void draw(@NonNull Canvas canvas, int index, int width, int height) {
+        setCell(index, mSrc);
+        mDst.set(0, 0, width, height);
+        canvas.drawBitmap(mBitmap, mSrc, mDst, mPaint);
+    }
+
+    /**
+     * Reads atlas from disk cache in background.
+     * @param context context to locate cache directory.
+     * @param callback called on the UI thread, with callbacks of other menus which joined the load.
+     */
+    void load(@NonNull Context context, @NonNull LoadCallback callback) {
+        mLoadCallbacks.add(callback);
+        if (mLoading) {
+            return;
+        }
+
+        mLoading = true;
+        final File file = getFile(context);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = file.exists() ? BitmapFactory.decodeFile(file.getPath()) : null;
+                if (bitmap != null) {
+                    // Recently used files are evicted last, see trimDisk()
+                    file.setLastModified(System.currentTimeMillis());
+                }
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mLoading = false;
+                        final boolean success = adopt(bitmap);
+                        for (int i = 0, cnt = mLoadCallbacks.size(); i < cnt; i++) {
+                            mLoadCallbacks.get(i).onAtlasLoaded(SpriteAtlas.this, success);
+                        }
+                        mLoadCallbacks.clear();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Writes complete atlas to disk cache in background.
+     * @param context context to locate cache directory.
+     */
+    void save(@NonNull Context context) {
+        if (!isComplete()) {
+            return;
+        }
+
+        final File file = getFile(context);
+        final String prefix = getFilePrefix(context);
+        final Bitmap bitmap = mBitmap;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final File dir = file.getParentFile();
+                if (!dir.isDirectory() && !dir.mkdirs()) {
+                    return;
+                }
+
+                File temp = null;
+                try {
+                    // Unique name, menus of the same configuration may save the atlas concurrently
+                    temp = File.createTempFile(prefix + "atlas", ".tmp", dir);
+                    final OutputStream out = new FileOutputStream(temp);
+                    try {
+                        bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+                    } finally {
+                        out.close();
+                    }
+
+                    if (!temp.renameTo(file)) {
+                        temp.delete();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Can't write sprites cache", e);
+                    if (temp != null) {
+                        temp.delete();
+                    }
+                }
+
+                trimDisk(dir, prefix);
+            }
+        });
+    }
+
+    /**
+     * Deletes files of other app versions, then the least recently used files over {@link #DISK_CACHE_BYTES}.
+     * Runs in background.
+     */
+    private static void trimDisk(@NonNull File dir, @NonNull String prefix) {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        int count = 0;
+        for (File file : files) {
+            if (!file.getName().startsWith(prefix)) {
+                file.delete();
+            } else {
+                size += file.length();
+                files[count++] = file;
+            }
+        }
+
+        if (size <= DISK_CACHE_BYTES) {
+            return;
+        }
+
+        final File[] current = Arrays.copyOf(files, count);
+        Arrays.sort(current, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                final long am = a.lastModified();
+                final long bm = b.lastModified();
+                return am < bm ? -1 : (am == bm ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < current.length && size > DISK_CACHE_BYTES; i++) {
+            final long length = current[i].length();
+            if (current[i].delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private boolean adopt(@Nullable Bitmap bitmap) {
+        if (bitmap == null || mCaptured > 0) {
+            return false;
+        }
+
+        final int rows = (getFrameCount() + mColumns - 1) / mColumns;
+        if (bitmap.getWidth() != mColumns * mCellWidth || bitmap.getHeight() != rows * mCellHeight) {
+            return false;
+        }
+
+        mBitmap = bitmap;
+        mCaptured = getFrameCount();
+        share();
+        return true;
+    }
+
+    /**
+     * Moves complete atlas from in-flight atlases to the memory cache.
+     */
+    private void share() {
+        final WeakReference<SpriteAtlas> ref = sPending.get(mKey);
+        if (ref != null && ref.get() == this) {
+            sPending.remove(mKey);
+        }
+        sAtlases.put(mKey, this);
+    }
+
+    private int getByteCount() {
+        return mBitmap != null ? mBitmap.getByteCount() : 0;
+    }
+
+    private void setCell(int index, @NonNull Rect out) {
+        final int left = (index % mColumns) * mCellWidth;
+        final int top = (index / mColumns) * mCellHeight;
+        out.set(left, top, left + mCellWidth, top + mCellHeight);
+    }
+
+    @NonNull
+    private File getFile(@NonNull Context context) {
+        // 64-bit FNV-1a, file name must be short and stable across launches
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, len = mKey.length(); i < len; i++) {
+            hash ^= mKey.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return new File(new File(context.getCacheDir(), CACHE_DIR), getFilePrefix(context) + Long.toHexString(hash) + ".png");
+    }
+
+    /**
+     * @return common prefix of cache files of the installed app version.
+     */
+    @NonNull
+    private static String getFilePrefix(@NonNull Context context) {
+        return Long.toHexString(getAppVersion(context)) + "-";
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Fixture shared by Robolectric tests and benchmark of CircleMenuView.
+ */
+final class CircleMenuTestUtils {
+
+    static final int DEFAULT_BUTTONS = 4;
+
+    private CircleMenuTestUtils() {}
+
+    /**
+     * @return resumed activity with AppCompat theme, required by FloatingActionButton.
+     */
+    @NonNull
+    static Activity createActivity() {
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class);
+        final Activity activity = controller.get();
+        activity.setTheme(android.support.v7.appcompat.R.style.Theme_AppCompat_Light);
+        controller.setup();
+        return activity;
+    }
+
+    /**
+     * @return menu with {@link #DEFAULT_BUTTONS} buttons of default icons, see {@link #icons(int)}.
+     */
+    @NonNull
+    static CircleMenuView createMenu(@NonNull Activity activity) {
+        return new CircleMenuView(activity, icons(DEFAULT_BUTTONS), colors(DEFAULT_BUTTONS));
+    }
+
+    /**
+     * @return menu and close icons of the library, alternating.
+     */
+    @NonNull
+    static List<Integer> icons(int count) {
+        return icons(count, R.drawable.ic_menu_black_24dp, R.drawable.ic_close_black_24dp);
+    }
+
+    /**
+     * @return specified icons, alternating.
+     */
+    @NonNull
+    static List<Integer> icons(int count, @DrawableRes int even, @DrawableRes int odd) {
+        final List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(i % 2 == 0 ? even : odd);
+        }
+        return result;
+    }
+
+    /**
+     * @return distinct opaque colors.
+     */
+    @NonNull
+    static List<Integer> colors(int count) {
+        final List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(0xFF000000 | (i * 0x0A1B2C));
+        }
+        return result;
+    }
+
+    /**
+     * @return satellite buttons of the menu, the only children without id.
+     */
+    @NonNull
+    static List<View> getButtons(@NonNull CircleMenuView menu) {
+        final List<View> result = new ArrayList<>();
+        for (int i = 0; i < menu.getChildCount(); i++) {
+            final View child = menu.getChildAt(i);
+            if (child.getId() == View.NO_ID) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return used heap after a few GC runs, approximate, for benchmark reports only.
+     */
+    static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,333 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.annotation.NonNull;
+import android.support.annotation.LayoutRes;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.ramotion.circlemenu.core.FrameScheduler;
+import com.ramotion.circlemenu.core.ManualFrameSource;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Inflation, first measure/layout, retained heap and first open of menus with 3 to 32 buttons,
+ * and cost of open animation frames of menus with vector icons, with and without rasterization.
+ * Skipped unless run with {@code ./gradlew :circle-menu:testDebugUnitTest -Pbenchmark}.
+ * Results are printed and written to {@code build/reports/benchmarks/circle-menu.json}.
+ * Numbers are JVM numbers, they are meant to be compared between releases, not with devices.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleMenuViewBenchmark {
+
+    private static final int[] BUTTON_COUNTS = {3, 4, 8, 16, 32};
+    private static final int[] RASTER_BUTTON_COUNTS = {6, 12, 24};
+    private static final int WARMUP = 10;
+    // Enough samples for p99 to differ from the maximum
+    private static final int ITERATIONS = 200;
+    private static final int HEAP_INSTANCES = 20;
+    private static final long FRAME_NANOS = 16 * ManualFrameSource.NANOS_PER_MILLI;
+    private static final int MAX_FRAMES = 1000;
+    private static final int SIZE = 1080;
+
+    private static final List<String> sResults = new ArrayList<>();
+
+    private Activity mActivity;
+    private FrameLayout mRoot;
+
+    private interface Factory {
+        CircleMenuView create(int buttons);
+    }
+
+    private static final class Stats {
+        final long[] values;
+
+        Stats(long[] values) {
+            this.values = values.clone();
+            Arrays.sort(this.values);
+        }
+
+        long percentile(int percentile) {
+            return values[Math.min(values.length - 1, values.length * percentile / 100)];
+        }
+    }
+
+    @BeforeClass
+    public static void checkEnabled() {
+        assumeTrue("Benchmark is disabled", Boolean.getBoolean("circlemenu.benchmark"));
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        if (sResults.isEmpty()) {
+            return;
+        }
+
+        final File dir = new File(System.getProperty("circlemenu.benchmark.dir", "build/reports/benchmarks"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can't create " + dir);
+        }
+
+        final Writer out = new FileWriter(new File(dir, "circle-menu.json"));
+        try {
+            out.write("[\n");
+            for (int i = 0; i < sResults.size(); i++) {
+                out.write("  " + sResults.get(i) + (i < sResults.size() - 1 ? ",\n" : "\n"));
+            }
+            out.write("]\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        mActivity = CircleMenuTestUtils.createActivity();
+
+        mRoot = new FrameLayout(mActivity);
+        mActivity.setContentView(mRoot);
+    }
+
+    @Test
+    public void inflateFromXml() {
+        runSuite("xml", new Factory() {
+            @Override
+            public CircleMenuView create(int buttons) {
+                return (CircleMenuView) LayoutInflater.from(mActivity).inflate(getLayout(buttons), mRoot, false);
+            }
+        });
+    }
+
+    @Test
+    public void inflateFromList() {
+        runSuite("list", new Factory() {
+            @Override
+            public CircleMenuView create(int buttons) {
+                return new CircleMenuView(mActivity, CircleMenuTestUtils.icons(buttons), CircleMenuTestUtils.colors(buttons));
+            }
+        });
+    }
+
+    @Test
+    public void openFramesWithVectorIcons() {
+        final String pkg = mActivity.getPackageName();
+        final int menuIcon = mActivity.getResources().getIdentifier("benchmark_vector_menu", "drawable", pkg);
+        final int closeIcon = mActivity.getResources().getIdentifier("benchmark_vector_close", "drawable", pkg);
+        assertNotEquals("No benchmark drawables, see src/debug/res", 0, menuIcon);
+        assertNotEquals("No benchmark drawables, see src/debug/res", 0, closeIcon);
+
+        for (int buttons : RASTER_BUTTON_COUNTS) {
+            final List<Integer> icons = CircleMenuTestUtils.icons(buttons, menuIcon, closeIcon);
+            final List<Integer> colors = CircleMenuTestUtils.colors(buttons);
+
+            for (boolean rasterize : new boolean[] {false, true}) {
+                final long[] frames = new long[MAX_FRAMES];
+                for (int i = 0; i < WARMUP; i++) {
+                    measureOpenFrames(icons, colors, rasterize, null, 0, frames, 0);
+                }
+
+                final long[] start = new long[ITERATIONS];
+                final long[] allFrames = new long[ITERATIONS * MAX_FRAMES];
+                int frameCount = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    frameCount += measureOpenFrames(icons, colors, rasterize, start, i, allFrames, frameCount);
+                }
+
+                reportFrames(rasterize, buttons, new Stats(start), new Stats(Arrays.copyOf(allFrames, frameCount)));
+            }
+        }
+    }
+
+    private void runSuite(@NonNull String source, @NonNull Factory factory) {
+        for (int buttons : BUTTON_COUNTS) {
+            for (int i = 0; i < WARMUP; i++) {
+                measureOnce(factory, buttons, null, 0);
+            }
+
+            final long[] inflate = new long[ITERATIONS];
+            final long[] layout = new long[ITERATIONS];
+            final long[] open = new long[ITERATIONS];
+            final long[][] results = {inflate, layout, open};
+            for (int i = 0; i < ITERATIONS; i++) {
+                measureOnce(factory, buttons, results, i);
+            }
+
+            report(source, buttons, new Stats(inflate), new Stats(layout), new Stats(open), retainedHeap(factory, buttons));
+        }
+    }
+
+    /**
+     * Inflates menu, runs its first measure/layout and first open, until open animation ends.
+     */
+    private void measureOnce(@NonNull Factory factory, int buttons, long[][] results, int index) {
+        final long start = System.nanoTime();
+        final CircleMenuView menu = factory.create(buttons);
+        final long inflated = System.nanoTime();
+
+        final ManualFrameSource clock = new ManualFrameSource();
+        menu.setFrameScheduler(new FrameScheduler(clock));
+        mRoot.addView(menu, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        final long layoutStart = System.nanoTime();
+        final int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.AT_MOST);
+        menu.measure(spec, spec);
+        menu.layout(0, 0, menu.getMeasuredWidth(), menu.getMeasuredHeight());
+        final long laidOut = System.nanoTime();
+
+        menu.open(true);
+        clock.runUntilIdle(FRAME_NANOS, MAX_FRAMES);
+        final long opened = System.nanoTime();
+
+        assertEquals(buttons, menu.getButtonsCount());
+        mRoot.removeView(menu);
+
+        if (results != null) {
+            results[0][index] = inflated - start;
+            results[1][index] = laidOut - layoutStart;
+            results[2][index] = opened - laidOut;
+        }
+    }
+
+    /**
+     * Opens laid out menu and draws it after each animation frame. Start time includes rasterization
+     * of icons, frame time includes drawing of the menu.
+     * @return count of measured frames.
+     */
+    private int measureOpenFrames(@NonNull List<Integer> icons, @NonNull List<Integer> colors, boolean rasterize,
+                                  long[] start, int index, @NonNull long[] frames, int offset) {
+        final CircleMenuView menu = new CircleMenuView(mActivity, icons, colors);
+        menu.setRasterizeIcons(rasterize);
+
+        final ManualFrameSource clock = new ManualFrameSource();
+        menu.setFrameScheduler(new FrameScheduler(clock));
+        mRoot.addView(menu, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        final int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.AT_MOST);
+        menu.measure(spec, spec);
+        menu.layout(0, 0, menu.getMeasuredWidth(), menu.getMeasuredHeight());
+
+        final Bitmap bitmap = Bitmap.createBitmap(menu.getWidth(), menu.getHeight(), Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+
+        final long openStart = System.nanoTime();
+        menu.open(true);
+        final long opened = System.nanoTime();
+
+        int count = 0;
+        while (clock.isFramePosted()) {
+            if (count == MAX_FRAMES) {
+                throw new IllegalStateException("Still animating after " + MAX_FRAMES + " frames");
+            }
+
+            final long frameStart = System.nanoTime();
+            clock.advance(FRAME_NANOS);
+            menu.draw(canvas);
+            frames[offset + count++] = System.nanoTime() - frameStart;
+        }
+
+        mRoot.removeView(menu);
+        bitmap.recycle();
+
+        if (start != null) {
+            start[index] = opened - openStart;
+        }
+        return count;
+    }
+
+    /**
+     * @return median heap growth per menu over several batches, in bytes.
+     */
+    private long retainedHeap(@NonNull Factory factory, int buttons) {
+        final long[] samples = new long[5];
+        for (int s = 0; s < samples.length; s++) {
+            final CircleMenuView[] menus = new CircleMenuView[HEAP_INSTANCES];
+            final long before = CircleMenuTestUtils.usedHeap();
+            for (int i = 0; i < HEAP_INSTANCES; i++) {
+                menus[i] = factory.create(buttons);
+            }
+            final long after = CircleMenuTestUtils.usedHeap();
+            samples[s] = (after - before) / HEAP_INSTANCES;
+            assertNotNull(menus[HEAP_INSTANCES - 1]);
+        }
+        return new Stats(samples).percentile(50);
+    }
+
+    /**
+     * Layouts, arrays and vector icons are debug resources, see {@code src/debug/res}, so they are merged
+     * into unit test resources of the debug variant and never packaged into release library.
+     */
+    @LayoutRes
+    private int getLayout(int buttons) {
+        final int layout = mActivity.getResources().getIdentifier("benchmark_menu_" + buttons, "layout", mActivity.getPackageName());
+        assertNotEquals("No benchmark layout for " + buttons + " buttons, see src/debug/res", 0, layout);
+        return layout;
+    }
+
+    private static void report(@NonNull String source, int buttons, @NonNull Stats inflate, @NonNull Stats layout,
+                               @NonNull Stats open, long heap) {
+        System.out.println(String.format(Locale.US,
+                "CircleMenu %-4s buttons=%2d  inflate p50/p90/p99 %6.3f/%6.3f/%6.3f ms  "
+                        + "layout %6.3f/%6.3f/%6.3f ms  open %7.3f/%7.3f/%7.3f ms  heap %d B",
+                source, buttons,
+                ms(inflate.percentile(50)), ms(inflate.percentile(90)), ms(inflate.percentile(99)),
+                ms(layout.percentile(50)), ms(layout.percentile(90)), ms(layout.percentile(99)),
+                ms(open.percentile(50)), ms(open.percentile(90)), ms(open.percentile(99)),
+                heap));
+
+        sResults.add(String.format(Locale.US,
+                "{\"source\": \"%s\", \"buttons\": %d, \"iterations\": %d, "
+                        + "\"inflateNanos\": %s, \"layoutNanos\": %s, \"firstOpenNanos\": %s, \"retainedBytes\": %d}",
+                source, buttons, ITERATIONS, json(inflate), json(layout), json(open), heap));
+    }
+
+    private static void reportFrames(boolean rasterize, int buttons, @NonNull Stats start, @NonNull Stats frames) {
+        System.out.println(String.format(Locale.US,
+                "CircleMenu vector buttons=%2d rasterize=%-5b  open start p50/p90/p99 %6.3f/%6.3f/%6.3f ms  "
+                        + "frame %6.3f/%6.3f/%6.3f ms",
+                buttons, rasterize,
+                ms(start.percentile(50)), ms(start.percentile(90)), ms(start.percentile(99)),
+                ms(frames.percentile(50)), ms(frames.percentile(90)), ms(frames.percentile(99))));
+
+        sResults.add(String.format(Locale.US,
+                "{\"source\": \"vector\", \"buttons\": %d, \"rasterize\": %b, \"iterations\": %d, "
+                        + "\"openStartNanos\": %s, \"frameNanos\": %s}",
+                buttons, rasterize, ITERATIONS, json(start), json(frames)));
+    }
+
+    @NonNull
+    private static String json(@NonNull Stats stats) {
+        return String.format(Locale.US, "{\"p50\": %d, \"p90\": %d, \"p99\": %d}",
+                stats.percentile(50), stats.percentile(90), stats.percentile(99));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+}
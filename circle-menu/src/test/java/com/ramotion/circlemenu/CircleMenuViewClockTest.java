@@ -0,0 +1,160 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.ramotion.circlemenu.core.FrameScheduler;
+import com.ramotion.circlemenu.core.ManualFrameSource;
+import com.ramotion.circlemenu.core.MenuCommandQueue;
+import com.ramotion.circlemenu.core.MenuFrame;
+import com.ramotion.circlemenu.core.MenuGeometry;
+import com.ramotion.circlemenu.core.MenuTimeline;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleMenuViewClockTest {
+
+    private static final float EPS = 0.01f;
+    private static final int BUTTONS = CircleMenuTestUtils.DEFAULT_BUTTONS;
+
+    private CircleMenuView mMenu;
+    private ManualFrameSource mClock;
+
+    @Before
+    public void setUp() {
+        final Activity activity = CircleMenuTestUtils.createActivity();
+
+        mMenu = CircleMenuTestUtils.createMenu(activity);
+        mClock = new ManualFrameSource();
+        mMenu.setFrameScheduler(new FrameScheduler(mClock));
+        activity.setContentView(mMenu);
+        ShadowLooper.idleMainLooper(16);
+    }
+
+    @Test
+    public void open_buttonsAtExactPositionsForPlayTime() {
+        final int duration = mMenu.getDurationOpen();
+        final MenuTimeline timeline = new MenuTimeline(duration, mMenu.getDurationClose(),
+                mMenu.getDurationRing(), mMenu.getLongClickDurationRing());
+        final MenuFrame expected = new MenuFrame();
+
+        mMenu.open(true);
+        timeline.start(MenuTimeline.TYPE_OPEN, -1, mMenu.getDistance(), expected);
+
+        assertTrue(mClock.frame());
+        for (long playTime : new long[] {duration / 4, duration / 2, duration * 3 / 4, duration}) {
+            mClock.advance(playTime * ManualFrameSource.NANOS_PER_MILLI - mClock.getTimeNanos());
+            timeline.apply(playTime, expected);
+            assertButtons(expected.buttonsOffset, expected.buttonsScale);
+        }
+
+        assertFalse(mClock.isFramePosted());
+        assertButtons(mMenu.getDistance(), 1f);
+    }
+
+    @Test
+    public void menu_doesNotMoveWithoutFrames() {
+        mMenu.open(true);
+        mClock.frame();
+        final float x = getButtons().get(0).getX();
+
+        ShadowLooper.idleMainLooper(mMenu.getDurationOpen() * 2);
+        assertTrue(mClock.isFramePosted());
+        assertEquals(x, getButtons().get(0).getX(), EPS);
+
+        mClock.runUntilIdle(16 * ManualFrameSource.NANOS_PER_MILLI, 1000);
+        assertButtons(mMenu.getDistance(), 1f);
+    }
+
+    @Test
+    public void commandsDuringAnimation_coalescedAndRunAfterIt() {
+        final List<String> results = new ArrayList<>();
+        final MenuCommandQueue.Callback callback = new MenuCommandQueue.Callback() {
+            @Override
+            public void onCommandComplete(int command, int buttonIndex, boolean performed) {
+                results.add(command + ":" + buttonIndex + ":" + performed);
+            }
+        };
+
+        mMenu.open(true);
+        mClock.frame();
+
+        mMenu.close(true, callback);
+        mMenu.open(true, callback);
+        mMenu.selectButton(2, callback);
+        assertEquals(Arrays.asList("2:-1:false", "1:-1:false"), results);
+
+        // Open animation, then click animation of the selected button
+        mClock.runUntilIdle(16 * ManualFrameSource.NANOS_PER_MILLI, 1000);
+        assertEquals("3:2:true", results.get(2));
+
+        mMenu.close(false, callback);
+        assertEquals("2:-1:true", results.get(3));
+        assertFalse(mClock.isFramePosted());
+    }
+
+    @Test
+    public void dragInRingBand_rotatesMenu() {
+        mMenu.setRotationEnabled(true);
+        mMenu.open(false);
+        final float x = getButtons().get(0).getX();
+        final float cx = mMenu.getWidth() / 2f;
+        final float cy = mMenu.getHeight() / 2f;
+        final float r = mMenu.getDistance();
+
+        assertFalse("Touch outside of the ring must pass through", touch(MotionEvent.ACTION_DOWN, 0, 1, 1));
+
+        assertTrue("Touch in the ring band must be consumed", touch(MotionEvent.ACTION_DOWN, 0, cx + r, cy));
+        for (int i = 1; i <= 3; i++) {
+            final double angle = Math.toRadians(10 * i);
+            assertTrue(touch(MotionEvent.ACTION_MOVE, 16 * i,
+                    cx + r * (float) Math.cos(angle), cy + r * (float) Math.sin(angle)));
+        }
+        assertTrue(touch(MotionEvent.ACTION_UP, 64, cx + r * (float) Math.cos(Math.toRadians(30)),
+                cy + r * (float) Math.sin(Math.toRadians(30))));
+
+        assertNotEquals(x, getButtons().get(0).getX(), EPS);
+    }
+
+    private boolean touch(int action, long time, float x, float y) {
+        final MotionEvent ev = MotionEvent.obtain(0, time, action, x, y, 0);
+        try {
+            return mMenu.onTouchEvent(ev);
+        } finally {
+            ev.recycle();
+        }
+    }
+
+    private void assertButtons(float offset, float scale) {
+        final View menuButton = mMenu.findViewById(R.id.circle_menu_main_button);
+        final MenuGeometry geometry = new MenuGeometry(BUTTONS);
+        final List<View> buttons = getButtons();
+
+        assertEquals(BUTTONS, buttons.size());
+        for (int i = 0; i < BUTTONS; i++) {
+            final View button = buttons.get(i);
+            assertEquals(menuButton.getX() + geometry.getX(i, offset), button.getX(), EPS);
+            assertEquals(menuButton.getY() + geometry.getY(i, offset), button.getY(), EPS);
+            assertEquals(scale, button.getScaleX(), EPS);
+        }
+    }
+
+    private List<View> getButtons() {
+        return CircleMenuTestUtils.getButtons(mMenu);
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.support.annotation.NonNull;
+import android.support.design.widget.FloatingActionButton;
+import android.view.View;
+
+import com.ramotion.circlemenu.core.FrameScheduler;
+import com.ramotion.circlemenu.core.ManualFrameSource;
+import com.ramotion.circlemenu.core.MenuGeometry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleMenuViewItemsTest {
+
+    private static final float EPS = 0.01f;
+
+    private static final int ICON_A = R.drawable.ic_menu_black_24dp;
+    private static final int ICON_B = R.drawable.ic_close_black_24dp;
+
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int CYAN = 0xFF00FFFF;
+
+    private CircleMenuView mMenu;
+    private ManualFrameSource mClock;
+
+    @Before
+    public void setUp() {
+        final Activity activity = CircleMenuTestUtils.createActivity();
+
+        mMenu = new CircleMenuView(activity,
+                Arrays.asList(ICON_A, ICON_B, ICON_A),
+                Arrays.asList(RED, GREEN, BLUE));
+        mClock = new ManualFrameSource();
+        mMenu.setFrameScheduler(new FrameScheduler(mClock));
+        activity.setContentView(mMenu);
+        ShadowLooper.idleMainLooper(16);
+    }
+
+    @Test
+    public void middleInsert_keepsButtonsAndAddsOneInItsSlot() {
+        mMenu.open(false);
+        final Map<Integer, View> before = getButtonsByColor();
+
+        mMenu.setItems(Arrays.asList(ICON_A, ICON_B, ICON_B, ICON_A), Arrays.asList(RED, GREEN, CYAN, BLUE));
+        assertEquals(4, mMenu.getButtonsCount());
+
+        final Map<Integer, View> after = getButtonsByColor();
+        assertEquals(4, after.size());
+        assertSame(before.get(RED), after.get(RED));
+        assertSame(before.get(GREEN), after.get(GREEN));
+        assertSame(before.get(BLUE), after.get(BLUE));
+
+        finishItemsAnimation();
+        assertSlots(RED, GREEN, CYAN, BLUE);
+    }
+
+    @Test
+    public void middleRemove_removesButtonFromItsOwnSlot() {
+        mMenu.open(false);
+        final Map<Integer, View> before = getButtonsByColor();
+        final View removed = before.get(GREEN);
+        final float removedX = removed.getX();
+        final float removedY = removed.getY();
+
+        mMenu.setItems(Arrays.asList(ICON_A, ICON_A), Arrays.asList(RED, BLUE));
+        assertEquals(2, mMenu.getButtonsCount());
+
+        // Removed button starts its animation where it was, kept buttons stay the same views
+        assertSame(mMenu, removed.getParent());
+        assertEquals(removedX, removed.getX(), EPS);
+        assertEquals(removedY, removed.getY(), EPS);
+
+        finishItemsAnimation();
+        assertNull(removed.getParent());
+
+        final Map<Integer, View> after = getButtonsByColor();
+        assertEquals(2, after.size());
+        assertSame(before.get(RED), after.get(RED));
+        assertSame(before.get(BLUE), after.get(BLUE));
+        assertSlots(RED, BLUE);
+    }
+
+    @Test
+    public void reorder_movesExistingButtons() {
+        mMenu.open(false);
+        final Map<Integer, View> before = getButtonsByColor();
+        final int childCount = mMenu.getChildCount();
+
+        mMenu.setItems(Arrays.asList(ICON_A, ICON_B, ICON_A), Arrays.asList(BLUE, GREEN, RED));
+        assertEquals(childCount, mMenu.getChildCount());
+
+        final Map<Integer, View> after = getButtonsByColor();
+        assertSame(before.get(RED), after.get(RED));
+        assertSame(before.get(GREEN), after.get(GREEN));
+        assertSame(before.get(BLUE), after.get(BLUE));
+
+        finishItemsAnimation();
+        assertSlots(BLUE, GREEN, RED);
+    }
+
+    @Test
+    public void setItemsDuringAnimation_appliedAfterAnimationEnd() {
+        mMenu.open(true);
+        mClock.frame();
+        final Map<Integer, View> before = getButtonsByColor();
+
+        mMenu.setItems(Arrays.asList(ICON_A, ICON_B, ICON_A), Arrays.asList(BLUE, CYAN, RED));
+        assertEquals(3, getButtonsByColor().size());
+        assertSame(before.get(GREEN), getButtonsByColor().get(GREEN));
+
+        mClock.runUntilIdle(16 * ManualFrameSource.NANOS_PER_MILLI, 1000);
+        assertEquals(3, mMenu.getButtonsCount());
+
+        finishItemsAnimation();
+        final Map<Integer, View> after = getButtonsByColor();
+        assertEquals(3, after.size());
+        assertSame(before.get(RED), after.get(RED));
+        assertSame(before.get(BLUE), after.get(BLUE));
+        assertSlots(BLUE, CYAN, RED);
+    }
+
+    @Test
+    public void setDistanceDuringAnimation_appliedAfterAnimationEnd() {
+        final float distance = mMenu.getDistance();
+        mMenu.open(true);
+        mClock.frame();
+
+        mMenu.setDistance(distance * 2);
+        assertEquals(distance, mMenu.getDistance(), EPS);
+
+        mClock.runUntilIdle(16 * ManualFrameSource.NANOS_PER_MILLI, 1000);
+        assertEquals(distance * 2, mMenu.getDistance(), EPS);
+
+        ShadowLooper.idleMainLooper(16);
+        assertSlots(RED, GREEN, BLUE);
+    }
+
+    /**
+     * Runs items animation until its end, removed buttons are detached by end actions.
+     */
+    private void finishItemsAnimation() {
+        ShadowLooper.idleMainLooper(mMenu.getDurationOpen() * 2);
+    }
+
+    private void assertSlots(int... colors) {
+        final View menuButton = mMenu.findViewById(R.id.circle_menu_main_button);
+        final MenuGeometry geometry = new MenuGeometry(colors.length);
+        final Map<Integer, View> buttons = getButtonsByColor();
+
+        for (int i = 0; i < colors.length; i++) {
+            final View button = buttons.get(colors[i]);
+            assertNotNull(button);
+            assertEquals(menuButton.getX() + geometry.getX(i, mMenu.getDistance()), button.getX(), EPS);
+            assertEquals(menuButton.getY() + geometry.getY(i, mMenu.getDistance()), button.getY(), EPS);
+            assertEquals(1f, button.getScaleX(), EPS);
+        }
+    }
+
+    @NonNull
+    private Map<Integer, View> getButtonsByColor() {
+        final Map<Integer, View> result = new HashMap<>();
+        for (View button : CircleMenuTestUtils.getButtons(mMenu)) {
+            result.put(((FloatingActionButton) button).getBackgroundTintList().getDefaultColor(), button);
+        }
+        return result;
+    }
+
+}
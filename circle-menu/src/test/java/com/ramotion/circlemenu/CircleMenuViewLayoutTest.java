@@ -0,0 +1,156 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleMenuViewLayoutTest {
+
+    private static final int FRAME_MS = 16;
+    private static final int MAX_FRAMES = 500;
+
+    private static class LayoutCountingMenuView extends CircleMenuView {
+        int layouts;
+
+        LayoutCountingMenuView(@NonNull Context context) {
+            super(context, CircleMenuTestUtils.icons(CircleMenuTestUtils.DEFAULT_BUTTONS),
+                    CircleMenuTestUtils.colors(CircleMenuTestUtils.DEFAULT_BUTTONS));
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            layouts++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+    }
+
+    private static class LayoutRecorder extends CircleMenuView.EventListener {
+        final LayoutCountingMenuView menu;
+        int startLayouts = -1;
+        int endLayouts = -1;
+
+        LayoutRecorder(LayoutCountingMenuView menu) {
+            this.menu = menu;
+        }
+
+        void start() {
+            startLayouts = menu.layouts;
+            endLayouts = -1;
+        }
+
+        void end() {
+            endLayouts = menu.layouts;
+        }
+
+        @Override
+        public void onMenuOpenAnimationStart(@NonNull CircleMenuView view) { start(); }
+
+        @Override
+        public void onMenuOpenAnimationEnd(@NonNull CircleMenuView view) { end(); }
+
+        @Override
+        public void onMenuCloseAnimationStart(@NonNull CircleMenuView view) { start(); }
+
+        @Override
+        public void onMenuCloseAnimationEnd(@NonNull CircleMenuView view) { end(); }
+
+        @Override
+        public void onButtonClickAnimationStart(@NonNull CircleMenuView view, int buttonIndex) { start(); }
+
+        @Override
+        public void onButtonClickAnimationEnd(@NonNull CircleMenuView view, int buttonIndex) { end(); }
+    }
+
+    private LayoutCountingMenuView mMenu;
+    private LayoutRecorder mRecorder;
+
+    @Before
+    public void setUp() {
+        final Activity activity = CircleMenuTestUtils.createActivity();
+
+        mMenu = new LayoutCountingMenuView(activity);
+        mRecorder = new LayoutRecorder(mMenu);
+        mMenu.setEventListener(mRecorder);
+        activity.setContentView(mMenu);
+        ShadowLooper.idleMainLooper(FRAME_MS);
+    }
+
+    @Test
+    public void openAndClose_runWithoutLayoutPasses() {
+        mMenu.open(true);
+        runAnimation();
+
+        mMenu.close(true);
+        runAnimation();
+    }
+
+    @Test
+    public void buttonClick_runsWithoutLayoutPasses() {
+        mMenu.open(true);
+        runAnimation();
+
+        final View button = mMenu.getChildAt(mMenu.getChildCount() - 1);
+        button.performClick();
+        runAnimation();
+    }
+
+    @Test
+    public void trimmedMenu_restoresButtonsWithoutLayoutPasses() {
+        final int childCount = mMenu.getChildCount();
+
+        assertTrue(mMenu.trimMemory());
+        assertEquals(childCount - 4, mMenu.getChildCount());
+        assertEquals(4, mMenu.getButtonsCount());
+
+        mMenu.open(true);
+        assertEquals(childCount, mMenu.getChildCount());
+        runAnimation();
+
+        final View button = mMenu.getChildAt(mMenu.getChildCount() - 1);
+        assertTrue(button.getWidth() > 0);
+        assertFalse(mMenu.trimMemory());
+    }
+
+    @Test
+    public void externalLayoutRequest_duringAnimation_isNotDeferred() {
+        mMenu.open(true);
+        ShadowLooper.idleMainLooper(FRAME_MS);
+        assertTrue("Animation not started", mRecorder.startLayouts >= 0);
+        assertTrue("Animation finished", mRecorder.endLayouts < 0);
+
+        final int layouts = mMenu.layouts;
+        mMenu.setLayoutParams(mMenu.getLayoutParams());
+        assertTrue(mMenu.isLayoutRequested());
+
+        ShadowLooper.idleMainLooper(FRAME_MS);
+        assertTrue("External layout request deferred", mMenu.layouts > layouts);
+    }
+
+    private void runAnimation() {
+        assertTrue("Animation not started", mRecorder.startLayouts >= 0);
+        for (int i = 0; i < MAX_FRAMES && mRecorder.endLayouts < 0; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MS);
+            if (mRecorder.endLayouts < 0) {
+                assertEquals("Layout pass during animation", mRecorder.startLayouts, mMenu.layouts);
+            }
+        }
+
+        assertEquals("Layout pass during animation", mRecorder.startLayouts, mRecorder.endLayouts);
+
+        mRecorder.startLayouts = -1;
+        ShadowLooper.idleMainLooper(FRAME_MS);
+    }
+
+}
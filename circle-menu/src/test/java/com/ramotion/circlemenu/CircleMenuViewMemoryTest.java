@@ -0,0 +1,163 @@
+package com.ramotion.circlemenu;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class CircleMenuViewMemoryTest {
+
+    private static final String ATLAS_KEY = "memory-test";
+    private static final int BUTTONS = 16;
+    private static final int MENUS = 20;
+
+    private Activity mActivity;
+    private FrameLayout mRoot;
+
+    @Before
+    public void setUp() {
+        mActivity = CircleMenuTestUtils.createActivity();
+
+        mRoot = new FrameLayout(mActivity);
+        mActivity.setContentView(mRoot);
+    }
+
+    @After
+    public void tearDown() {
+        SpriteAtlas.trimCache();
+    }
+
+    @Test
+    public void trimMemory_releasesButtonsAndKeepsSharedCaches() {
+        final CircleMenuView menu = addMenu();
+        final int childCount = menu.getChildCount();
+        final SpriteAtlas atlas = captureAtlas();
+
+        assertTrue(menu.trimMemory());
+        assertEquals(childCount - BUTTONS, menu.getChildCount());
+        assertEquals(BUTTONS, menu.getButtonsCount());
+        assertSame("Menu must not drop caches of other menus", atlas, SpriteAtlas.get(ATLAS_KEY));
+
+        menu.open(false);
+        assertEquals(childCount, menu.getChildCount());
+    }
+
+    @Test
+    public void applicationTrim_releasesButtonsAndSharedCaches() {
+        final CircleMenuView menu = addMenu();
+        final int childCount = menu.getChildCount();
+        captureAtlas();
+
+        RuntimeEnvironment.application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertNull(SpriteAtlas.get(ATLAS_KEY));
+        assertEquals(childCount - BUTTONS, menu.getChildCount());
+    }
+
+    @Test
+    public void trimMemory_releasedButtonsAreCollected() {
+        final CircleMenuView menu = addMenu();
+        menu.open(false);
+        menu.close(false);
+        ShadowLooper.idleMainLooper(16);
+
+        final List<WeakReference<View>> buttons = new ArrayList<>(BUTTONS);
+        for (View button : CircleMenuTestUtils.getButtons(menu)) {
+            buttons.add(new WeakReference<>(button));
+        }
+        assertEquals(BUTTONS, buttons.size());
+
+        assertTrue(menu.trimMemory());
+        ShadowLooper.idleMainLooper(16);
+
+        for (int i = 0; i < 10 && buttons.get(0).get() != null; i++) {
+            System.gc();
+        }
+        for (WeakReference<View> button : buttons) {
+            assertNull("Released button is still referenced", button.get());
+        }
+    }
+
+    /**
+     * Prints heap released by trimMemory, runs only with {@code -Pbenchmark}.
+     */
+    @Test
+    public void trimMemory_reportsReleasedHeap() {
+        assumeTrue("Benchmark is disabled", Boolean.getBoolean("circlemenu.benchmark"));
+
+        final List<CircleMenuView> menus = new ArrayList<>(MENUS);
+        for (int i = 0; i < MENUS; i++) {
+            final CircleMenuView menu = addMenu();
+            menu.open(false);
+            menu.close(false);
+            menus.add(menu);
+        }
+        ShadowLooper.idleMainLooper(16);
+
+        final long before = CircleMenuTestUtils.usedHeap();
+        for (CircleMenuView menu : menus) {
+            assertTrue(menu.trimMemory());
+        }
+        final long after = CircleMenuTestUtils.usedHeap();
+
+        System.out.println(String.format(Locale.US, "CircleMenu trimMemory buttons=%d released %d B per menu",
+                BUTTONS, (before - after) / MENUS));
+    }
+
+    @Test
+    public void sameConfiguration_sharesAtlasWhileLoading() {
+        final SpriteAtlas.LoadCallback callback = new SpriteAtlas.LoadCallback() {
+            @Override
+            public void onAtlasLoaded(@NonNull SpriteAtlas atlas, boolean success) {}
+        };
+
+        final SpriteAtlas first = SpriteAtlas.obtain(mActivity, ATLAS_KEY, 8, 8, 0, 0, callback);
+        final SpriteAtlas second = SpriteAtlas.obtain(mActivity, ATLAS_KEY, 8, 8, 0, 0, callback);
+        assertSame("Menus of the same configuration must share one load", first, second);
+        assertTrue(first.isLoading());
+        assertFalse(first.isComplete());
+        assertNull(SpriteAtlas.get(ATLAS_KEY));
+    }
+
+    @NonNull
+    private CircleMenuView addMenu() {
+        final CircleMenuView menu = new CircleMenuView(mActivity,
+                CircleMenuTestUtils.icons(BUTTONS), CircleMenuTestUtils.colors(BUTTONS));
+        mRoot.addView(menu);
+        ShadowLooper.idleMainLooper(16);
+        return menu;
+    }
+
+    /**
+     * @return complete atlas of two frames, stored in the shared cache.
+     */
+    @NonNull
+    private static SpriteAtlas captureAtlas() {
+        final SpriteAtlas atlas = new SpriteAtlas(ATLAS_KEY, 8, 8, 0, 0);
+        while (!atlas.isComplete()) {
+            atlas.endCapture(atlas.beginCapture());
+        }
+        assertSame(atlas, SpriteAtlas.get(ATLAS_KEY));
+        return atlas;
+    }
+
+}